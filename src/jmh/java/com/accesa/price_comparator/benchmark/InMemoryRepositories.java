@@ -0,0 +1,153 @@
+package com.accesa.price_comparator.benchmark;
+
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.LatestPrice;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Store;
+import com.accesa.price_comparator.repository.DiscountRepository;
+import com.accesa.price_comparator.repository.LatestPriceRepository;
+import com.accesa.price_comparator.repository.PriceHistoryJdbcRepository;
+import com.accesa.price_comparator.repository.ProductRepository;
+import com.accesa.price_comparator.repository.StoreRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Repository fakes backed by a {@link SyntheticDataset}, so benchmarks measure the analysis layer
+ * rather than PostgreSQL. Only the query methods used by the services are implemented;
+ * anything else throws {@link UnsupportedOperationException}.
+ */
+public final class InMemoryRepositories {
+
+    private final ProductRepository products;
+    private final StoreRepository stores;
+    private final DiscountRepository discounts;
+    private final PriceHistoryJdbcRepository priceHistory;
+    private final LatestPriceRepository latestPrices;
+
+    public InMemoryRepositories(SyntheticDataset data) {
+        Map<String, List<Product>> historyById = data.history().stream()
+                .collect(Collectors.groupingBy(Product::getId));
+        List<Product> latestSnapshots = data.history().stream()
+                .collect(Collectors.toMap(p -> p.getId() + '|' + p.getKey().getStoreName(), p -> p,
+                        (a, b) -> a.getPriceDate().isAfter(b.getPriceDate()) ? a : b))
+                .values().stream().toList();
+        Map<String, Store> storesByName = data.stores().stream()
+                .collect(Collectors.toMap(Store::getName, s -> s));
+
+        Map<String, Function<Object[], Object>> productQueries = new HashMap<>();
+        productQueries.put("findLatestSnapshots", args -> new ArrayList<>(latestSnapshots));
+        productQueries.put("findAll", args -> new ArrayList<>(data.history()));
+        productQueries.put("findByKeyId", args -> new ArrayList<>(historyById.getOrDefault((String) args[0], List.of())));
+        productQueries.put("findByKeyIdAndKeyStoreName", args -> historyById.getOrDefault((String) args[0], List.of()).stream()
+                .filter(p -> p.getKey().getStoreName().equals(args[1]))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        productQueries.put("findTopByKeyIdOrderByKeyPriceDateDesc", args -> historyById.getOrDefault((String) args[0], List.of()).stream()
+                .max(Comparator.comparing(Product::getPriceDate))
+                .orElse(null));
+        productQueries.put("findByProductName", args -> data.history().stream()
+                .filter(p -> p.getProductName().equals(args[0]))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        products = proxy(ProductRepository.class, productQueries);
+
+        Map<String, Function<Object[], Object>> storeQueries = new HashMap<>();
+        storeQueries.put("findAll", args -> new ArrayList<>(data.stores()));
+        storeQueries.put("findById", args -> Optional.ofNullable(storesByName.get((String) args[0])));
+        stores = proxy(StoreRepository.class, storeQueries);
+
+        Map<String, Function<Object[], Object>> discountQueries = new HashMap<>();
+        discountQueries.put("findByToDateGreaterThanEqual", args -> data.discounts().stream()
+                .filter(d -> !d.getToDate().isBefore((LocalDate) args[0]))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        discountQueries.put("findByFromDateLessThanEqualAndToDateGreaterThanEqual", args -> data.discounts().stream()
+                .filter(d -> !d.getFromDate().isAfter((LocalDate) args[0]) && !d.getToDate().isBefore((LocalDate) args[1]))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        discountQueries.put("findByFromDateAfter", args -> data.discounts().stream()
+                .filter(d -> d.getFromDate().isAfter((LocalDate) args[0]))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        discounts = proxy(DiscountRepository.class, discountQueries);
+
+        Map<String, List<LatestPrice>> latestById = latestSnapshots.stream()
+                .map(InMemoryRepositories::toLatestPrice)
+                .collect(Collectors.groupingBy(l -> l.getKey().getProductId()));
+        Map<String, Function<Object[], Object>> latestQueries = new HashMap<>();
+        latestQueries.put("findByKeyProductId", args -> new ArrayList<>(latestById.getOrDefault((String) args[0], List.of())));
+        latestQueries.put("findByKeyProductIdIn", args -> ((Collection<?>) args[0]).stream()
+                .flatMap(id -> latestById.getOrDefault((String) id, List.of()).stream())
+                .collect(Collectors.toCollection(ArrayList::new)));
+        latestQueries.put("count", args -> (long) latestSnapshots.size());
+        latestPrices = proxy(LatestPriceRepository.class, latestQueries);
+
+        List<Product> ordered = data.history().stream()
+                .sorted(Comparator.comparing(Product::getId)
+                        .thenComparing(p -> p.getKey().getStoreName())
+                        .thenComparing(Product::getPriceDate))
+                .toList();
+        priceHistory = new PriceHistoryJdbcRepository(new JdbcTemplate()) {
+            @Override
+            public void forEachPricePoint(PricePointHandler handler) {
+                ordered.forEach(p -> handler.accept(p.getId(), p.getKey().getStoreName(),
+                        (int) p.getPriceDate().toEpochDay(), p.getPrice()));
+            }
+        };
+    }
+
+    public ProductRepository products() {
+        return products;
+    }
+
+    public StoreRepository stores() {
+        return stores;
+    }
+
+    public DiscountRepository discounts() {
+        return discounts;
+    }
+
+    public PriceHistoryJdbcRepository priceHistory() {
+        return priceHistory;
+    }
+
+    public LatestPriceRepository latestPrices() {
+        return latestPrices;
+    }
+
+    private static LatestPrice toLatestPrice(Product p) {
+        LatestPrice.LatestPriceKey key = new LatestPrice.LatestPriceKey();
+        key.setProductId(p.getId());
+        key.setStoreName(p.getKey().getStoreName());
+        LatestPrice latest = new LatestPrice();
+        latest.setKey(key);
+        latest.setPriceDate(p.getPriceDate());
+        latest.setPrice(p.getPrice());
+        latest.setCatalog(p.getCatalog());
+        return latest;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> queries) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> query = queries.get(method.getName());
+            if (query != null) {
+                return query.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.accesa.price_comparator.benchmark;
+
+import com.accesa.price_comparator.dto.RollupPeriod;
+import com.accesa.price_comparator.service.BasketOptimizer;
+import com.accesa.price_comparator.service.DiscountIndex;
+import com.accesa.price_comparator.service.EffectivePriceEngine;
+import com.accesa.price_comparator.service.LatestPriceIndex;
+import com.accesa.price_comparator.service.PriceAnalysisService;
+import com.accesa.price_comparator.service.PriceHistoryStore;
+import com.accesa.price_comparator.service.ProductSearchIndex;
+import com.accesa.price_comparator.service.UnitPriceRanking;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of {@link PriceAnalysisService} over an in-memory dataset.
+ * Dataset size is controlled by the {@code products}, {@code stores} and {@code historyDays} parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceAnalysisBenchmark {
+
+    private static final String[] NAME_QUERIES = {"lapte", "bio", "ciocolata prem", "suc", "apa"};
+
+    @Param("1000")
+    public int products;
+
+    @Param("30")
+    public int stores;
+
+    @Param("60")
+    public int historyDays;
+
+    private PriceAnalysisService analysisService;
+    private List<String> productIds;
+    private List<String> basket;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SyntheticDataset data = new SyntheticDataset(products, stores, historyDays, 42L);
+        InMemoryRepositories repos = new InMemoryRepositories(data);
+
+        LatestPriceIndex latestPriceIndex = new LatestPriceIndex(repos.products(), repos.latestPrices(), event -> { });
+        latestPriceIndex.rebuild();
+        ProductSearchIndex searchIndex = new ProductSearchIndex(repos.products());
+        searchIndex.rebuild();
+        DiscountIndex discountIndex = new DiscountIndex(repos.discounts(), 10, 60);
+        discountIndex.rebuild();
+        UnitPriceRanking unitPriceRanking = new UnitPriceRanking(repos.products(), latestPriceIndex);
+        unitPriceRanking.rebuild();
+        PriceHistoryStore historyStore = new PriceHistoryStore(repos.priceHistory(), repos.products());
+        historyStore.rebuild();
+        EffectivePriceEngine effectivePrices = new EffectivePriceEngine(discountIndex, event -> { });
+        BasketOptimizer basketOptimizer = new BasketOptimizer(latestPriceIndex, effectivePrices, 40);
+
+        analysisService = new PriceAnalysisService(latestPriceIndex, searchIndex, basketOptimizer,
+                discountIndex, unitPriceRanking, historyStore, effectivePrices);
+
+        productIds = data.productIds();
+        Random random = new Random(7);
+        basket = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            basket.add(productIds.get(random.nextInt(productIds.size())));
+        }
+    }
+
+    private String nextProductId() {
+        cursor = (cursor + 1) % productIds.size();
+        return productIds.get(cursor);
+    }
+
+    @Benchmark
+    public void comparePricesForProduct(Blackhole bh) {
+        bh.consume(analysisService.comparePricesForProduct(nextProductId()));
+    }
+
+    @Benchmark
+    public void comparePricesForProducts(Blackhole bh) {
+        bh.consume(analysisService.comparePricesForProducts(basket));
+    }
+
+    @Benchmark
+    public void getBestValueAlternative(Blackhole bh) {
+        bh.consume(analysisService.getBestValueAlternative(nextProductId()));
+    }
+
+    @Benchmark
+    public void optimizeBasket(Blackhole bh) {
+        bh.consume(analysisService.optimizeBasket(basket, 4, 5.0));
+    }
+
+    @Benchmark
+    public void getBestDiscounts(Blackhole bh) {
+        bh.consume(analysisService.getBestDiscounts(10));
+    }
+
+    @Benchmark
+    public void getPriceHistory(Blackhole bh) {
+        bh.consume(analysisService.getPriceHistory(nextProductId(), null, null, null, 30));
+    }
+
+    @Benchmark
+    public void getPriceStatistics(Blackhole bh) {
+        bh.consume(analysisService.getPriceStatistics(nextProductId(), null, RollupPeriod.WEEK, null, null));
+    }
+
+    @Benchmark
+    public void getLowestPrice(Blackhole bh) {
+        bh.consume(analysisService.getLowestPrice(nextProductId(), null, 90));
+    }
+
+    @Benchmark
+    public void searchProductsByName(Blackhole bh) {
+        cursor = (cursor + 1) % NAME_QUERIES.length;
+        bh.consume(analysisService.searchProductsByName(NAME_QUERIES[cursor], 0, 50));
+    }
+}
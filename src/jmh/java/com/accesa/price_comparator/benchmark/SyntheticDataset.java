@@ -0,0 +1,125 @@
+package com.accesa.price_comparator.benchmark;
+
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Store;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic price data: {@code products} products, each sold in roughly 60% of
+ * {@code stores} stores, with one price snapshot per day for {@code historyDays} days up to today
+ * and a discount on about 5% of the (product, store) pairs.
+ */
+public final class SyntheticDataset {
+
+    private static final String[] CATEGORIES = {
+            "lactate", "panificatie", "bauturi", "dulciuri", "legume", "fructe", "carne", "cafea",
+            "conserve", "paste", "cereale", "snacks", "igiena", "detergenti", "condimente", "oua"
+    };
+    private static final String[] NOUNS = {
+            "lapte", "iaurt", "paine", "suc", "ciocolata", "rosii", "mere", "piept", "cafea", "fasole",
+            "spaghete", "fulgi", "chipsuri", "sapun", "detergent", "piper", "oua", "unt", "branza", "apa"
+    };
+    private static final String[] ADJECTIVES = {
+            "bio", "clasic", "premium", "light", "extra", "natural", "proaspat", "integral"
+    };
+    private static final String[] BRANDS = {
+            "Zuzu", "Pilos", "Napolact", "Dorna", "Milka", "Lavazza", "Barilla", "Chio", "Dove", "Ariel"
+    };
+    private static final String[][] PACKAGES = {
+            {"1", "l"}, {"500", "ml"}, {"1", "kg"}, {"500", "g"}, {"250", "g"}, {"10", "pcs"}, {"6", "pcs"}
+    };
+
+    private final List<Store> stores = new ArrayList<>();
+    private final List<Product> history = new ArrayList<>();
+    private final List<Discount> discounts = new ArrayList<>();
+    private final List<String> productIds = new ArrayList<>();
+
+    public SyntheticDataset(int products, int storeCount, int historyDays, long seed) {
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        for (int s = 0; s < storeCount; s++) {
+            Store store = new Store();
+            store.setName("Store" + s);
+            stores.add(store);
+        }
+        for (int i = 0; i < products; i++) {
+            String id = String.format("P%05d", i);
+            productIds.add(id);
+            String name = NOUNS[random.nextInt(NOUNS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + i;
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String brand = BRANDS[random.nextInt(BRANDS.length)];
+            String[] pack = PACKAGES[random.nextInt(PACKAGES.length)];
+            double basePrice = 2 + random.nextInt(4000) / 100.0;
+
+            for (Store store : stores) {
+                if (random.nextInt(10) >= 6) continue;
+                double price = basePrice * (0.85 + random.nextDouble() * 0.3);
+                for (int d = historyDays - 1; d >= 0; d--) {
+                    price = Math.max(0.5, price * (0.98 + random.nextDouble() * 0.04));
+                    history.add(product(id, name, category, brand, pack, store, today.minusDays(d), Math.round(price * 100) / 100.0));
+                }
+                if (random.nextInt(20) == 0) {
+                    discounts.add(discount(id, name, category, brand, pack, store, today.minusDays(random.nextInt(5)),
+                            today.plusDays(1 + random.nextInt(7)), 5 + random.nextInt(45)));
+                }
+            }
+        }
+    }
+
+    public List<Store> stores() {
+        return stores;
+    }
+
+    public List<Product> history() {
+        return history;
+    }
+
+    public List<Discount> discounts() {
+        return discounts;
+    }
+
+    public List<String> productIds() {
+        return productIds;
+    }
+
+    private static Product product(String id, String name, String category, String brand, String[] pack,
+                                   Store store, LocalDate date, double price) {
+        Product.ProductKey key = new Product.ProductKey();
+        key.setId(id);
+        key.setStoreName(store.getName());
+        key.setPriceDate(date);
+        Product p = new Product();
+        p.setKey(key);
+        p.setStore(store);
+        p.setProductName(name);
+        p.setProductCategory(category);
+        p.setBrand(brand);
+        p.setPackageQuantity(Double.parseDouble(pack[0]));
+        p.setPackageUnit(pack[1]);
+        p.setPrice(price);
+        p.setCurrency("RON");
+        return p;
+    }
+
+    private static Discount discount(String id, String name, String category, String brand, String[] pack,
+                                     Store store, LocalDate from, LocalDate to, int percentage) {
+        Discount d = new Discount();
+        d.setProductId(id);
+        d.setProductName(name);
+        d.setProductCategory(category);
+        d.setBrand(brand);
+        d.setPackageQuantity(Double.parseDouble(pack[0]));
+        d.setPackageUnit(pack[1]);
+        d.setStore(store);
+        d.setFromDate(from);
+        d.setToDate(to);
+        d.setPercentageOfDiscount(percentage);
+        d.setPriceDate(from);
+        return d;
+    }
+}
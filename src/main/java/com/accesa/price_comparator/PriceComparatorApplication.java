@@ -2,12 +2,18 @@ package com.accesa.price_comparator;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PriceComparatorApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(PriceComparatorApplication.class, args);
+		SpringApplication app = new SpringApplication(PriceComparatorApplication.class);
+		// startup phase timings, served by /actuator/startup
+		app.setApplicationStartup(new BufferingApplicationStartup(4096));
+		app.run(args);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.accesa.price_comparator.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Bounded Caffeine caches for repository and service lookups.
+ * <ul>
+ *   <li>{@link #STORES}: the store list barely changes, cached for a day (cleared when ingestion sees a new store)</li>
+ *   <li>{@link #PRODUCT_HISTORY}, {@link #PRICE_COMPARISON}: valid until the next ingest,
+ *       which evicts only the affected product ids ({@code CacheInvalidationListener})</li>
+ * </ul>
+ * All caches record hit/miss statistics.
+ * The cache interceptor is ordered just before the lowest precedence, so {@link RepositoryCallMetrics} runs
+ * inside it and only counts calls that reach the repository.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String STORES = "stores";
+    public static final String PRODUCT_HISTORY = "productHistory";
+    public static final String PRICE_COMPARISON = "priceComparison";
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.registerCustomCache(STORES, Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(Duration.ofHours(24))
+                .recordStats()
+                .build());
+        manager.registerCustomCache(PRODUCT_HISTORY, Caffeine.newBuilder()
+                .maximumSize(2_000)
+                .expireAfterWrite(Duration.ofHours(12))
+                .recordStats()
+                .build());
+        manager.registerCustomCache(PRICE_COMPARISON, Caffeine.newBuilder()
+                .maximumSize(20_000)
+                .expireAfterWrite(Duration.ofHours(12))
+                .recordStats()
+                .build());
+        return manager;
+    }
+}
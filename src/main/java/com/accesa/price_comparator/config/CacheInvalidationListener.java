@@ -0,0 +1,75 @@
+package com.accesa.price_comparator.config;
+
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.event.EffectivePricesChangedEvent;
+import com.accesa.price_comparator.event.LatestPriceChange;
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Store;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Evicts cached entries of the products touched by an ingest, instead of clearing whole caches.
+ */
+@Component
+public class CacheInvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    public CacheInvalidationListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /** Database-backed lookups: evicted once the new rows are committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesChanged(ProductPricesChangedEvent event) {
+        Set<String> productIds = event.products().stream().map(Product::getId).collect(Collectors.toSet());
+        Cache history = cacheManager.getCache(CacheConfig.PRODUCT_HISTORY);
+        productIds.forEach(history::evict);
+        evictStoresIfNew(event.products().stream().map(p -> p.getKey().getStoreName()).collect(Collectors.toSet()));
+    }
+
+    /** Discount feeds add the stores they name as well. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountsChanged(DiscountsChangedEvent event) {
+        evictStoresIfNew(event.discounts().stream().map(d -> d.getStore().getName()).collect(Collectors.toSet()));
+    }
+
+    /** Comparisons are computed from the latest-price index, so they are evicted after the index moved. */
+    @EventListener
+    public void onLatestPricesChanged(LatestPricesChangedEvent event) {
+        Cache comparisons = cacheManager.getCache(CacheConfig.PRICE_COMPARISON);
+        event.changes().stream().map(LatestPriceChange::productId).distinct().forEach(comparisons::evict);
+    }
+
+    /** Comparisons carry today's effective prices: evicted when a product's discounts changed. */
+    @EventListener
+    public void onEffectivePricesChanged(EffectivePricesChangedEvent event) {
+        Cache comparisons = cacheManager.getCache(CacheConfig.PRICE_COMPARISON);
+        event.productIds().forEach(comparisons::evict);
+    }
+
+    private void evictStoresIfNew(Set<String> storeNames) {
+        Cache stores = cacheManager.getCache(CacheConfig.STORES);
+        List<?> cached = stores.get(SimpleKey.EMPTY, List.class);
+        if (cached == null) {
+            // nothing to compare against; only single-store lookups (possibly cached misses) may be present
+            stores.clear();
+            return;
+        }
+        Set<String> known = cached.stream().map(s -> ((Store) s).getName()).collect(Collectors.toSet());
+        if (!known.containsAll(storeNames)) {
+            stores.clear();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.accesa.price_comparator.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code price_comparator.analysis}: timer per {@code PriceAnalysisService} method, tagged with the outcome and
+ * the number of repository calls the invocation made (counted by {@link RepositoryCallMetrics}, bucketed,
+ * see {@link #bucket(int)}).
+ * Runs outside the cache interceptor, so cache hits are timed as well.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HotPathMetrics {
+
+    private final MeterRegistry registry;
+    private final RepositoryCallMetrics repositoryCalls;
+
+    public HotPathMetrics(MeterRegistry registry, RepositoryCallMetrics repositoryCalls) {
+        this.registry = registry;
+        this.repositoryCalls = repositoryCalls;
+    }
+
+    @Around("execution(public * com.accesa.price_comparator.service.PriceAnalysisService.*(..))")
+    public Object timeAnalysis(ProceedingJoinPoint call) throws Throwable {
+        int callsBefore = repositoryCalls.callsOnCurrentThread();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            return call.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("price_comparator.analysis")
+                    .tag("method", call.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("repository.calls", bucket(repositoryCalls.callsOnCurrentThread() - callsBefore))
+                    .register(registry));
+        }
+    }
+
+    /** Low-cardinality tag value for a number of repository calls. */
+    public static String bucket(int calls) {
+        if (calls <= 1) return Integer.toString(Math.max(calls, 0));
+        if (calls <= 5) return "2-5";
+        if (calls <= 20) return "6-20";
+        return "21+";
+    }
+}
@@ -0,0 +1,78 @@
+package com.accesa.price_comparator.config;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.service.InMemoryIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application meters next to the Spring Boot defaults (scraped from /actuator/prometheus):
+ * <ul>
+ *   <li>{@code http.server.requests} gets a {@code repository.calls} tag (bucketed count per request)</li>
+ *   <li>{@code price_comparator.index.*}: size, hits, misses, hit ratio and last rebuild time of every in-memory index</li>
+ *   <li>{@code price_comparator.cache.hit.ratio} per Caffeine cache (Boot already exports {@code cache.gets} etc.)</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public DefaultServerRequestObservationConvention repositoryCallsObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object calls = context.getCarrier().getAttribute(RepositoryCallsFilter.CALLS_ATTRIBUTE);
+                return super.getLowCardinalityKeyValues(context).and("repository.calls",
+                        calls instanceof Integer n ? HotPathMetrics.bucket(n) : "none");
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder inMemoryIndexMetrics(List<InMemoryIndex> indexes) {
+        return registry -> {
+            for (InMemoryIndex index : indexes) {
+                indexGauge(registry, index, "price_comparator.index.size", IndexStats::size);
+                indexGauge(registry, index, "price_comparator.index.hit.ratio", IndexStats::hitRate);
+                indexGauge(registry, index, "price_comparator.index.rebuild.millis", IndexStats::lastRebuildMillis);
+                FunctionCounter.builder("price_comparator.index.hits", index, i -> i.stats().hits())
+                        .tag("index", index.name())
+                        .register(registry);
+                FunctionCounter.builder("price_comparator.index.misses", index, i -> i.stats().misses())
+                        .tag("index", index.name())
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(name).getNativeCache();
+                Gauge.builder("price_comparator.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                        .tag("cache", name)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static void indexGauge(MeterRegistry registry, InMemoryIndex index, String name,
+                                   ToDoubleFunction<IndexStats> value) {
+        Gauge.builder(name, index, i -> value.applyAsDouble(i.stats()))
+                .tag("index", index.name())
+                .register(registry);
+    }
+}
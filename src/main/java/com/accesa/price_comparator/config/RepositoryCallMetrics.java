@@ -0,0 +1,52 @@
+package com.accesa.price_comparator.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code price_comparator.repository.calls}: counter per repository and method (Spring Data and JDBC repositories).
+ * Calls are also counted per thread, for {@link HotPathMetrics} and {@link RepositoryCallsFilter}.
+ * Runs inside the cache interceptor ({@link CacheConfig} orders it first), so a cache hit is not a repository call.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class RepositoryCallMetrics {
+
+    private static final ThreadLocal<int[]> CALLS = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final MeterRegistry registry;
+
+    public RepositoryCallMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("this(org.springframework.data.repository.Repository) || within(com.accesa.price_comparator.repository..*)")
+    public Object countRepositoryCall(ProceedingJoinPoint call) throws Throwable {
+        CALLS.get()[0]++;
+        registry.counter("price_comparator.repository.calls",
+                "repository", repositoryName(call),
+                "method", call.getSignature().getName()).increment();
+        return call.proceed();
+    }
+
+    /** Repository calls made on the current thread so far (compare two readings to count a section). */
+    public int callsOnCurrentThread() {
+        return CALLS.get()[0];
+    }
+
+    // Spring Data proxies expose the repository interface, JDBC repositories their own class
+    private static String repositoryName(ProceedingJoinPoint call) {
+        for (Class<?> type : call.getThis().getClass().getInterfaces()) {
+            if (type.getPackageName().startsWith("com.accesa.price_comparator")) {
+                return type.getSimpleName();
+            }
+        }
+        return call.getSignature().getDeclaringType().getSimpleName();
+    }
+}
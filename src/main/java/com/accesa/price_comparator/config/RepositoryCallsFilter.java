@@ -0,0 +1,52 @@
+package com.accesa.price_comparator.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many repository calls every request made ({@code price_comparator.http.repository.calls},
+ * per URI pattern and HTTP method), so an endpoint that turns N+1 shows up in its max / percentiles.
+ * The count is also left in a request attribute for the {@code http.server.requests} tag
+ * (see {@link MetricsConfig}).
+ * Calls made on other threads (parallel imports) are not attributed to the request.
+ */
+@Component
+public class RepositoryCallsFilter extends OncePerRequestFilter {
+
+    public static final String CALLS_ATTRIBUTE = RepositoryCallsFilter.class.getName() + ".calls";
+
+    private final RepositoryCallMetrics repositoryCalls;
+    private final MeterRegistry registry;
+
+    public RepositoryCallsFilter(RepositoryCallMetrics repositoryCalls, MeterRegistry registry) {
+        this.repositoryCalls = repositoryCalls;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int before = repositoryCalls.callsOnCurrentThread();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int calls = repositoryCalls.callsOnCurrentThread() - before;
+            request.setAttribute(CALLS_ATTRIBUTE, calls);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("price_comparator.http.repository.calls")
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .tag("method", request.getMethod())
+                    .register(registry)
+                    .record(calls);
+        }
+    }
+}
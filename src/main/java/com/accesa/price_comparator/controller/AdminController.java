@@ -0,0 +1,48 @@
+package com.accesa.price_comparator.controller;
+
+import com.accesa.price_comparator.dto.CacheStatistics;
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.service.InMemoryIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Operational endpoints (index sizes, cache and index hit rates).
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final List<InMemoryIndex> indexes;
+    private final CacheManager cacheManager;
+
+    public AdminController(List<InMemoryIndex> indexes, CacheManager cacheManager) {
+        this.indexes = indexes;
+        this.cacheManager = cacheManager;
+    }
+
+    /** Size and hit rate of every in-memory index */
+    @GetMapping("/indexes")
+    public List<IndexStats> indexStats() {
+        return indexes.stream().map(InMemoryIndex::stats).toList();
+    }
+
+    /** Size, hit/miss counters and evictions of every cache */
+    @GetMapping("/caches")
+    public List<CacheStatistics> cacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(name -> {
+                    Cache<?, ?> cache = (Cache<?, ?>) cacheManager.getCache(name).getNativeCache();
+                    CacheStats stats = cache.stats();
+                    return new CacheStatistics(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                            stats.hitRate(), stats.evictionCount());
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,33 @@
+package com.accesa.price_comparator.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursors: the service-level position, URL-safe Base64 encoded.
+ * The cursor of the next page is returned in the {@value #NEXT_CURSOR_HEADER} response header.
+ */
+final class Cursors {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Cursors() {
+    }
+
+    static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a cursor received from a client; {@code null} or empty means "first page". */
+    static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
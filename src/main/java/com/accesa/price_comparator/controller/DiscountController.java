@@ -19,9 +19,13 @@ public class DiscountController {
         this.analysisService = analysisService;
     }
 
-    // 1. The highest active discounts at the current moment (top N, default is 3)
+    // 1. The highest active discounts at the current moment (top N, default is 3), optionally for one store
     @GetMapping("/best")
-    public List<Discount> getTopDiscounts(@RequestParam(name="top", defaultValue = "3") int top) {
+    public List<Discount> getTopDiscounts(@RequestParam(name="top", defaultValue = "3") int top,
+                                          @RequestParam(required = false) String store) {
+        if (store != null && !store.isEmpty()) {
+            return analysisService.getBestDiscounts(top, store);
+        }
         return analysisService.getBestDiscounts(top);
     }
 
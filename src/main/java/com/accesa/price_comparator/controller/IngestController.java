@@ -0,0 +1,67 @@
+package com.accesa.price_comparator.controller;
+
+import com.accesa.price_comparator.dto.IngestReport;
+import com.accesa.price_comparator.service.PriceFeedImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * CSV feed ingestion. {@code path} may point to a single feed file or to a directory of feeds, and is
+ * resolved against {@code price-comparator.ingest.root}; paths outside that directory are rejected.
+ */
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+
+    private final PriceFeedImportService importService;
+    private final Path root;
+
+    public IngestController(PriceFeedImportService importService,
+                            @Value("${price-comparator.ingest.root:data/feeds}") Path root) {
+        this.importService = importService;
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    /** Import product price feeds: POST /api/ingest/products?path=. (the whole ingest root) */
+    @PostMapping("/products")
+    public List<IngestReport> importProducts(@RequestParam String path) throws IOException {
+        return importService.importProducts(existing(path));
+    }
+
+    /** Import discount feeds: POST /api/ingest/discounts?path=lidl_discounts_2025-05-08.csv */
+    @PostMapping("/discounts")
+    public List<IngestReport> importDiscounts(@RequestParam String path) throws IOException {
+        return importService.importDiscounts(existing(path));
+    }
+
+    private Path existing(String path) throws IOException {
+        Path p;
+        try {
+            p = root.resolve(path).normalize();
+        } catch (InvalidPathException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid feed path");
+        }
+        if (!p.startsWith(root)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Feed path must be inside the ingest root");
+        }
+        if (!Files.exists(p)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Feed path not found: " + path);
+        }
+        // a symbolic link inside the root must not lead out of it
+        if (!p.toRealPath().startsWith(root.toRealPath())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Feed path must be inside the ingest root");
+        }
+        return p;
+    }
+}
@@ -17,11 +17,12 @@ public class PriceAlertController {
 
     private final PriceAlertService alertService;
 
-    /** Create a new alert: POST /api/alerts?productId=1&targetPrice=9.99 */
+    /** Create a new alert: POST /api/alerts?productId=P001&targetPrice=9.99 (optionally &storeName=Lidl) */
     @PostMapping
-    public PriceAlert createAlert(@RequestParam Long productId,
+    public PriceAlert createAlert(@RequestParam String productId,
+                                  @RequestParam(required = false) String storeName,
                                   @RequestParam double targetPrice) {
-        return alertService.createAlert(productId, targetPrice);
+        return alertService.createAlert(productId, storeName, targetPrice);
     }
 
     /** List all non-triggered alerts */
@@ -33,10 +34,8 @@ public class PriceAlertController {
     /** Manually mark an alert as triggered */
     @PutMapping("/{id}/trigger")
     public PriceAlert trigger(@PathVariable Long id) {
-        return alertService.getActiveAlerts()
-                .stream()
-                .filter(a -> a.getId().equals(id))
-                .findFirst()
+        return alertService.findAlert(id)
+                .filter(a -> !a.isTriggered())
                 .map(alertService::markTriggered)
                 .orElse(null);
     }
@@ -0,0 +1,40 @@
+package com.accesa.price_comparator.controller;
+
+import com.accesa.price_comparator.service.PriceChangeBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent-event stream of price changes and new discounts (instead of polling
+ * /api/discounts/new or /api/alerts/active).
+ */
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+public class PriceChangeFeedController {
+
+    private final PriceChangeBroadcaster broadcaster;
+
+    /**
+     * GET /api/feed/prices — events {@code price} and {@code discount} (JSON {@code PriceChange}, id = sequence).
+     * Resumes after the {@code Last-Event-ID} header (sent by browsers on reconnect) or the {@code after} parameter;
+     * without either, only new changes are streamed.
+     */
+    @GetMapping(value = "/prices", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter prices(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(required = false) Long after) {
+        Long resumeAfter = after;
+        if (resumeAfter == null && lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeAfter = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Last-Event-ID: " + lastEventId);
+            }
+        }
+        return broadcaster.subscribe(resumeAfter);
+    }
+}
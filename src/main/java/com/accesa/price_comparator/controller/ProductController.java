@@ -1,12 +1,25 @@
 package com.accesa.price_comparator.controller;
 
+import com.accesa.price_comparator.dto.BasketPlan;
+import com.accesa.price_comparator.dto.CursorPage;
+import com.accesa.price_comparator.dto.LowestPrice;
+import com.accesa.price_comparator.dto.PriceHistory;
+import com.accesa.price_comparator.dto.PriceQuote;
+import com.accesa.price_comparator.dto.PriceStatistics;
+import com.accesa.price_comparator.dto.RollupPeriod;
 import com.accesa.price_comparator.model.Product;
-import com.accesa.price_comparator.model.Store;
 import com.accesa.price_comparator.service.PriceAnalysisService;
 import com.accesa.price_comparator.service.ProductService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +27,8 @@ import java.util.Map;
 @RequestMapping("/api")
 public class ProductController {
 
+    private static final int MAX_COMPARE_BATCH = 500;
+
     private final PriceAnalysisService analysisService;
     private final ProductService  productService;
 
@@ -22,37 +37,138 @@ public class ProductController {
         this.productService = productService;
     }
 
-    // 1. List of products (optionally filtered by category or name)
+    // 1. List of products (optionally filtered by category, name or brand), one entry per product.
+    //    Keyset-paginated: pass the X-Next-Cursor header of a response as "after" to get the next page.
+    //    "page" selects the legacy page-number mode.
     @GetMapping("/product")
-    public List<Product> getProducts(@RequestParam(required = false) String category,
-                                     @RequestParam(required = false) String name) {
+    public ResponseEntity<List<Product>> getProducts(@RequestParam(required = false) String category,
+                                                     @RequestParam(required = false) String name,
+                                                     @RequestParam(required = false) String brand,
+                                                     @RequestParam(required = false) Integer page,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(defaultValue = "50") int size) {
+        size = Math.max(1, size);
+        if (page != null) {
+            return ResponseEntity.ok(productsByPage(category, name, brand, page, size));
+        }
+        String cursor = Cursors.decode(after);
+        CursorPage<Product> result;
         if (category != null && !category.isEmpty()) {
-            return analysisService.getProductsByCategory(category);
+            result = analysisService.getProductsByCategory(category, cursor, size);
+        } else if (name != null && !name.isEmpty()) {
+            result = analysisService.searchProductsByName(name, cursor, size);
+        } else if (brand != null && !brand.isEmpty()) {
+            result = analysisService.getProductsByBrand(brand, cursor, size);
+        } else {
+            // If no parameters are specified, return all products
+            result = analysisService.listProducts(cursor, size);
+        }
+        return withNextCursor(result);
+    }
+
+    private List<Product> productsByPage(String category, String name, String brand, int page, int size) {
+        if (category != null && !category.isEmpty()) {
+            return analysisService.getProductsByCategory(category, page, size);
         }
         if (name != null && !name.isEmpty()) {
-            return analysisService.searchProductsByName(name);
+            return analysisService.searchProductsByName(name, page, size);
+        }
+        if (brand != null && !brand.isEmpty()) {
+            return analysisService.getProductsByBrand(brand, page, size);
         }
-        // If no parameters are specified, return all products
-        return analysisService.getProductsByCategory("");  // (empty category -> returns the full list)
+        return analysisService.listProducts(page, size);
+    }
+
+    // 1b. Every product row as newline-delimited JSON, streamed from a database cursor
+    @GetMapping(value = "/product/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService::exportProducts);
     }
 
-    // 2. Product details (basic information + price offers per store)
+    // 2. Product details (basic information + price offers per store), keyset-paginated by store and date
     @GetMapping("/products/{id}")
-    public List<Product> getProductDetails(@PathVariable String id) {
-      return   productService.getProductById(id);
+    public ResponseEntity<List<Product>> getProductDetails(@PathVariable String id,
+                                                           @RequestParam(required = false) String after,
+                                                           @RequestParam(defaultValue = "100") int size) {
+        return withNextCursor(productService.getProductById(id, Cursors.decode(after), Math.max(1, size)));
     }
 
     // 3. GetLatestPrice for products in store
     @GetMapping("/compare/{productId}")
-    public List<Product> comparePrices(@PathVariable String productId) {
+    public List<PriceQuote> comparePrices(@PathVariable String productId) {
         return analysisService.comparePricesForProduct(productId);
     }
 
-    // 4. Price history of a product (optionally filtered by a specific store)
+    // 3b. Latest prices for a whole shopping list in one request: POST /api/compare/batch ["P001", "P002", ...]
+    @PostMapping("/compare/batch")
+    public Map<String, List<PriceQuote>> comparePricesBatch(@RequestBody List<String> productIds) {
+        if (productIds.size() > MAX_COMPARE_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_COMPARE_BATCH + " products per batch");
+        }
+        if (productIds.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Product ids must not be null");
+        }
+        return analysisService.comparePricesForProducts(productIds);
+    }
+
+    // 4. Price history of a product (optionally filtered by store and date range, optionally downsampled to N points per store).
+    //    With size > 0 the history is keyset-paginated by date, at most "size" points per store and page.
     @GetMapping("/history/{productId}")
-    public List<Product> priceHistory(@PathVariable String productId,
-                                      @RequestParam(required = false) String store) {
-        return analysisService.getPriceHistory(productId, store);
+    public ResponseEntity<PriceHistory> priceHistory(@PathVariable String productId,
+                                                     @RequestParam(required = false) String store,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @RequestParam(defaultValue = "0") int points,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(defaultValue = "0") int size) {
+        LocalDate pageEnd = null;
+        if (size > 0) {
+            String cursor = Cursors.decode(after);
+            if (cursor != null) {
+                LocalDate next = parseDateCursor(cursor).plusDays(1);
+                from = from == null || next.isAfter(from) ? next : from;
+            }
+            pageEnd = analysisService.getPriceHistoryPageEnd(productId, store, from, to, size);
+        }
+        PriceHistory history = analysisService.getPriceHistory(productId, store, from, pageEnd != null ? pageEnd : to, points);
+        if (history == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown product: " + productId);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pageEnd != null) {
+            response.header(Cursors.NEXT_CURSOR_HEADER, Cursors.encode(pageEnd.toString()));
+        }
+        return response.body(history);
+    }
+
+    // 4b. Price statistics per store and period (day / week / month): count, min, max, average, volatility, last price
+    @GetMapping("/stats/{productId}")
+    public PriceStatistics priceStatistics(@PathVariable String productId,
+                                           @RequestParam(required = false) String store,
+                                           @RequestParam(defaultValue = "week") String period,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PriceStatistics statistics = analysisService.getPriceStatistics(productId, store, RollupPeriod.parse(period), from, to);
+        if (statistics == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown product: " + productId);
+        }
+        return statistics;
+    }
+
+    // 4c. Lowest price in the last N days and whether today's price matches it: GET /api/stats/P001/lowest?days=90
+    @GetMapping("/stats/{productId}/lowest")
+    public LowestPrice lowestPrice(@PathVariable String productId,
+                                   @RequestParam(required = false) String store,
+                                   @RequestParam(defaultValue = "90") int days) {
+        LowestPrice lowest = analysisService.getLowestPrice(productId, store, days);
+        if (lowest == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "No prices for product " + productId + " in the last " + days + " days");
+        }
+        return lowest;
     }
 
     //TODO: move to alert controller
@@ -69,29 +185,41 @@ public class ProductController {
     }
 
 
-    // 6. Basket optimisation (distribute products across stores for minimum total cost)
+    // 6. Basket optimisation (distribute products across stores for minimum total cost,
+    //    optionally visiting at most maxStores stores, each visit costing visitCost)
     @GetMapping("/basket/optimize")
-    public Map<String, Object> optimizeBasket(@RequestParam List<String> products) {
-        Map<Store, List<Product>> allocation = analysisService.optimizeBasket(products);
-        // Convert the Store key to the store name to simplify the JSON structure of the response
-        Map<String, List<Product>> result = new HashMap<>();
-        allocation.forEach((store, productList) ->
-                result.put(store.getName(), productList)
-        );
-        // Calculate the total cost of the optimised basket
-        double totalCost = result.values().stream()
-                .flatMap(List::stream)
-                .mapToDouble(Product::getPrice)
-                .sum();
-        return Map.of(
-                "allocation", result,
-                "totalCost", totalCost
-        );
+    public BasketPlan optimizeBasket(@RequestParam List<String> products,
+                                     @RequestParam(defaultValue = "0") int maxStores,
+                                     @RequestParam(defaultValue = "0") double visitCost) {
+        return analysisService.optimizeBasket(products, maxStores, visitCost);
     }
 
     // 7. Product substitute/recommendation endpoint:Returns a cheaper alternative product (same category) based on unit price, if any.
     @GetMapping("/{id}/alternative")
-    public Product getAlternative(@PathVariable String id) {
+    public PriceQuote getAlternative(@PathVariable String id) {
         return analysisService.getBestValueAlternative(id);
     }
-}
\ No newline at end of file
+
+    // 8. The N best-value alternatives (same category and unit), cheapest per unit first
+    @GetMapping("/{id}/alternatives")
+    public List<PriceQuote> getAlternatives(@PathVariable String id,
+                                         @RequestParam(defaultValue = "5") int top) {
+        return analysisService.getBestValueAlternatives(id, top);
+    }
+
+    private static <T> ResponseEntity<List<T>> withNextCursor(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Cursors.NEXT_CURSOR_HEADER, Cursors.encode(page.nextCursor()));
+        }
+        return response.body(page.items());
+    }
+
+    private static LocalDate parseDateCursor(String cursor) {
+        try {
+            return LocalDate.parse(cursor);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
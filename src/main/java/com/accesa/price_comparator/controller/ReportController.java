@@ -0,0 +1,45 @@
+package com.accesa.price_comparator.controller;
+
+import com.accesa.price_comparator.dto.ReportJobStatus;
+import com.accesa.price_comparator.service.BestPriceReportJob;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * Best-price report job (results in {@code best_price_report} / {@code category_best_value_report}).
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    private final BestPriceReportJob reportJob;
+
+    public ReportController(BestPriceReportJob reportJob) {
+        this.reportJob = reportJob;
+    }
+
+    /** Start a run: POST /api/reports/best-prices?date=2025-05-08 (default today); 409 while one is running */
+    @PostMapping("/best-prices")
+    public ResponseEntity<ReportJobStatus> start(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        if (!reportJob.start(date != null ? date : LocalDate.now())) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A best-price report is already running");
+        }
+        return ResponseEntity.accepted().body(reportJob.status());
+    }
+
+    /** Progress of the running (or last) run, with its throughput in rows per second */
+    @GetMapping("/best-prices/status")
+    public ReportJobStatus status() {
+        return reportJob.status();
+    }
+}
@@ -0,0 +1,14 @@
+package com.accesa.price_comparator.dto;
+
+import com.accesa.price_comparator.model.Product;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * One basket item bought in a store: the latest price snapshot plus the price actually paid
+ * after the store's active discount (if any).
+ */
+public record BasketLine(@JsonUnwrapped Product product,
+                         double listPrice,
+                         double effectivePrice,
+                         int discountPercentage) {
+}
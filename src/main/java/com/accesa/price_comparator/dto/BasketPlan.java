@@ -0,0 +1,24 @@
+package com.accesa.price_comparator.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a basket optimisation: what to buy where, and what it costs.
+ *
+ * @param allocation  store name -> items bought there
+ * @param itemsCost   sum of effective (discounted) item prices
+ * @param visitCost   fixed per-store cost times the number of visited stores
+ * @param totalCost   itemsCost + visitCost
+ * @param unavailable requested product ids that could not be placed (unknown, or not coverable within the store limit)
+ * @param optimal     false when the search hit its time budget and returned the best allocation found so far
+ */
+public record BasketPlan(Map<String, List<BasketLine>> allocation,
+                         double itemsCost,
+                         double visitCost,
+                         double totalCost,
+                         int storesUsed,
+                         List<String> unavailable,
+                         boolean optimal,
+                         long elapsedMillis) {
+}
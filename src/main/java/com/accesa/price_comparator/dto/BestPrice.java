@@ -0,0 +1,21 @@
+package com.accesa.price_comparator.dto;
+
+/**
+ * One row of the best-price report: the cheapest current offer of a product, per unit and after discounts.
+ *
+ * @param unitPrice          cheapest price per {@code unit} (kg, l, pcs, ...), or {@code null} for unusable packages
+ * @param effectiveStore     the store with the lowest price after its active discount
+ * @param discountPercentage the discount applied in {@code effectiveStore} (0 if none)
+ */
+public record BestPrice(String productId,
+                        String productName,
+                        String productCategory,
+                        int storeCount,
+                        String cheapestStore,
+                        double cheapestPrice,
+                        Double unitPrice,
+                        String unit,
+                        String effectiveStore,
+                        double effectivePrice,
+                        int discountPercentage) {
+}
@@ -0,0 +1,7 @@
+package com.accesa.price_comparator.dto;
+
+/**
+ * Size and hit/miss counters of one cache.
+ */
+public record CacheStatistics(String name, long size, long hits, long misses, double hitRate, long evictions) {
+}
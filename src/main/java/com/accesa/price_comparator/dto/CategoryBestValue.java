@@ -0,0 +1,12 @@
+package com.accesa.price_comparator.dto;
+
+/**
+ * The product with the lowest effective (discounted) unit price of a category and unit dimension.
+ */
+public record CategoryBestValue(String productCategory,
+                                String unit,
+                                String productId,
+                                String productName,
+                                String storeName,
+                                double effectiveUnitPrice) {
+}
@@ -0,0 +1,11 @@
+package com.accesa.price_comparator.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result.
+ *
+ * @param nextCursor position to continue after, or {@code null} when this is the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
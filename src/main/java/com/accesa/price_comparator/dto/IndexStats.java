@@ -0,0 +1,13 @@
+package com.accesa.price_comparator.dto;
+
+/**
+ * Size and hit-rate snapshot of an in-memory index.
+ */
+public record IndexStats(String name, long size, long hits, long misses, double hitRate, long lastRebuildMillis) {
+
+    public static IndexStats of(String name, long size, long hits, long misses, long lastRebuildMillis) {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : (double) hits / lookups;
+        return new IndexStats(name, size, hits, misses, hitRate, lastRebuildMillis);
+    }
+}
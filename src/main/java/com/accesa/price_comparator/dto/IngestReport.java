@@ -0,0 +1,14 @@
+package com.accesa.price_comparator.dto;
+
+/**
+ * Outcome of importing one CSV feed file.
+ */
+public record IngestReport(String file,
+                           String kind,
+                           long rowsRead,
+                           long rowsWritten,
+                           long rowsRejected,
+                           long elapsedMillis,
+                           double rowsPerSecond,
+                           long peakHeapUsedMb) {
+}
@@ -0,0 +1,13 @@
+package com.accesa.price_comparator.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Lowest price of a product since a date (across stores, or in one store).
+ *
+ * @param currentPrice    cheapest current price (newest price per store), over the same stores
+ * @param currentIsLowest whether the current price is at (or below) the lowest price of the window
+ */
+public record LowestPrice(String productId, LocalDate since, double price, String storeName, LocalDate date,
+                          double currentPrice, String currentStoreName, boolean currentIsLowest) {
+}
@@ -0,0 +1,18 @@
+package com.accesa.price_comparator.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One entry of the price change feed.
+ *
+ * @param sequence            position in the feed (strictly increasing, starts at 1 on every application start)
+ * @param oldPrice            previous price in the store, or {@code null} if it is not known
+ * @param newPrice            new price (for a discount: the discounted price), or {@code null} if it is not known
+ * @param date                price date, or the first day of a discount
+ * @param discountPercentage  set for {@link Kind#DISCOUNT} entries only
+ */
+public record PriceChange(long sequence, Kind kind, String productId, String storeName,
+                          Double oldPrice, Double newPrice, LocalDate date, Integer discountPercentage) {
+
+    public enum Kind { PRICE, DISCOUNT }
+}
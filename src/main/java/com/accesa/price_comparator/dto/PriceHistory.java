@@ -0,0 +1,17 @@
+package com.accesa.price_comparator.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price history of a product: its metadata once, plus a date-ordered price series per store.
+ */
+public record PriceHistory(String productId,
+                           String productName,
+                           String brand,
+                           String productCategory,
+                           double packageQuantity,
+                           String packageUnit,
+                           String currency,
+                           Map<String, List<PricePoint>> stores) {
+}
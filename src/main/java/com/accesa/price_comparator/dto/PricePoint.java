@@ -0,0 +1,9 @@
+package com.accesa.price_comparator.dto;
+
+import java.time.LocalDate;
+
+/**
+ * One price observation of a product in a store.
+ */
+public record PricePoint(LocalDate date, double price) {
+}
@@ -0,0 +1,14 @@
+package com.accesa.price_comparator.dto;
+
+import com.accesa.price_comparator.model.Product;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * A store's current offer for a product: the latest price snapshot (its {@code price} is the list price)
+ * plus the price actually paid today after the store's active discount, if any.
+ */
+public record PriceQuote(@JsonUnwrapped Product product,
+                         double listPrice,
+                         double effectivePrice,
+                         int discountPercentage) {
+}
@@ -0,0 +1,13 @@
+package com.accesa.price_comparator.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Price statistics of one product in one store over one period.
+ *
+ * @param stdDev population standard deviation of the daily prices (volatility)
+ * @param last   price of the last day with a price in the period
+ */
+public record PriceRollup(LocalDate periodStart, int count, double min, double max, double average,
+                          double stdDev, double last) {
+}
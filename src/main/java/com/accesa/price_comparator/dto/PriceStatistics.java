@@ -0,0 +1,10 @@
+package com.accesa.price_comparator.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price rollups of one product, one date-ordered list per store.
+ */
+public record PriceStatistics(String productId, RollupPeriod period, Map<String, List<PriceRollup>> stores) {
+}
@@ -0,0 +1,24 @@
+package com.accesa.price_comparator.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Progress of the (last) best-price report run.
+ *
+ * @param rowsRead      latest-price rows streamed so far
+ * @param productsDone  products whose report rows have been written
+ * @param rowsPerSecond rows read per second since the start
+ */
+public record ReportJobStatus(State state,
+                              LocalDate reportDate,
+                              Instant startedAt,
+                              Instant finishedAt,
+                              long rowsRead,
+                              long productsDone,
+                              long categories,
+                              double rowsPerSecond,
+                              String error) {
+
+    public enum State { IDLE, RUNNING, DONE, FAILED }
+}
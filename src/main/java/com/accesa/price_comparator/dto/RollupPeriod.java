@@ -0,0 +1,43 @@
+package com.accesa.price_comparator.dto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * Calendar period of a price rollup: a day, an ISO week (Monday to Sunday) or a calendar month.
+ * Periods are identified by the epoch day of their first day.
+ */
+public enum RollupPeriod {
+    DAY, WEEK, MONTH;
+
+    /** Epoch day of the first day of the period containing {@code epochDay}. */
+    public int start(int epochDay) {
+        return switch (this) {
+            case DAY -> epochDay;
+            // epoch day 0 (1970-01-01) is a Thursday
+            case WEEK -> epochDay - Math.floorMod(epochDay + 3, 7);
+            case MONTH -> (int) LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+        };
+    }
+
+    /** Epoch day of the first day of the next period, for a period starting at {@code start}. */
+    public int next(int start) {
+        return switch (this) {
+            case DAY -> start + 1;
+            case WEEK -> start + 7;
+            case MONTH -> (int) LocalDate.ofEpochDay(start).plusMonths(1).toEpochDay();
+        };
+    }
+
+    /** Case-insensitive lookup ("week", "MONTH", ...) of a request parameter; unknown values are a 400. */
+    public static RollupPeriod parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Unknown period: " + value + " (expected day, week or month)");
+        }
+    }
+}
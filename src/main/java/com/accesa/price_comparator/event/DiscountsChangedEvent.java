@@ -0,0 +1,11 @@
+package com.accesa.price_comparator.event;
+
+import com.accesa.price_comparator.model.Discount;
+
+import java.util.List;
+
+/**
+ * Published after a batch of {@link Discount} rows was written.
+ */
+public record DiscountsChangedEvent(List<Discount> discounts) {
+}
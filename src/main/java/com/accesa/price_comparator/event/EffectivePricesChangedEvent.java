@@ -0,0 +1,12 @@
+package com.accesa.price_comparator.event;
+
+import java.util.Set;
+
+/**
+ * Published when the discounts in effect changed for some products (a discount was imported,
+ * started or expired), so their effective prices differ from before.
+ * Published by the {@code EffectivePriceEngine} after commit (or from its scheduled refresh),
+ * so listeners use plain {@code @EventListener}.
+ */
+public record EffectivePricesChangedEvent(Set<String> productIds) {
+}
@@ -0,0 +1,11 @@
+package com.accesa.price_comparator.event;
+
+import java.time.LocalDate;
+
+/**
+ * A change of the current price of a product in one store.
+ *
+ * @param oldPrice previous latest price, or {@code null} when the store did not sell the product before
+ */
+public record LatestPriceChange(String productId, String storeName, Double oldPrice, double newPrice, LocalDate priceDate) {
+}
@@ -0,0 +1,11 @@
+package com.accesa.price_comparator.event;
+
+import java.util.List;
+
+/**
+ * Published by the latest-price index after it applied a batch of snapshots,
+ * with only the (product, store) pairs whose current price actually changed.
+ * It is published after commit, so listeners use plain {@code @EventListener}.
+ */
+public record LatestPricesChangedEvent(List<LatestPriceChange> changes) {
+}
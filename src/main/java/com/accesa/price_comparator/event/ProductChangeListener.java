@@ -0,0 +1,31 @@
+package com.accesa.price_comparator.event;
+
+import com.accesa.price_comparator.model.Product;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * JPA entity listener for {@link Product}: every snapshot saved through
+ * {@code ProductRepository} is republished as a {@link ProductPricesChangedEvent}. It is published before the row
+ * is written (the listeners run after the commit), so the snapshot writer sees the change in progress before the
+ * write bumps the data version.
+ */
+@Component
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher publisher;
+
+    public ProductChangeListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void onSaved(Product product) {
+        publisher.publishEvent(new ProductPricesChangedEvent(List.of(product)));
+    }
+}
@@ -0,0 +1,12 @@
+package com.accesa.price_comparator.event;
+
+import com.accesa.price_comparator.model.Product;
+
+import java.util.List;
+
+/**
+ * Published whenever one or more {@link Product} price snapshots were written.
+ * In-memory structures listen to it to stay in sync without re-reading the database.
+ */
+public record ProductPricesChangedEvent(List<Product> products) {
+}
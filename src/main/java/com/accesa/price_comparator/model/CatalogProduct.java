@@ -0,0 +1,28 @@
+package com.accesa.price_comparator.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Catalog entry of a product: the descriptive attributes, stored once per product code
+ * (the dated {@link Product} rows only carry store, date and price).
+ */
+@Entity
+@Table(name = "product_catalog")
+@Data
+@NoArgsConstructor
+public class CatalogProduct {
+
+    @Id
+    private String id;                 // cod produs
+
+    private String productName;
+    private String productCategory;
+    private String brand;
+    private double packageQuantity;    // ex.: 1, 0.5, 500
+    private String packageUnit;        // ex.: "kg", "l", "g", "buc"
+    private String currency;
+}
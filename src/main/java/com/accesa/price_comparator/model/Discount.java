@@ -7,7 +7,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "discount")
+@Table(name = "discount", uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "store_name", "from_date"}))
 @Data
 @NoArgsConstructor
 public class Discount {
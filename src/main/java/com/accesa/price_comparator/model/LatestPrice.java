@@ -0,0 +1,65 @@
+package com.accesa.price_comparator.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Current price of a product in a store: the date and price of the newest {@link Product} row per
+ * (product, store), kept in {@code product_latest_price} and upserted together with every ingest batch.
+ * The descriptive attributes come from the product's {@link CatalogProduct}.
+ */
+@Entity
+@Table(name = "product_latest_price")
+@Data
+@NoArgsConstructor
+public class LatestPrice {
+
+    @EmbeddedId
+    private LatestPriceKey key;
+
+    // Data rândului din istoric care a furnizat preţul curent
+    private LocalDate priceDate;
+
+    private double price;
+
+    // Atribute descriptive, din catalog (product_catalog.id = product_latest_price.product_id)
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "product_id", referencedColumnName = "id", insertable = false, updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CatalogProduct catalog;
+
+    /** The equivalent (detached) {@link Product} history row. */
+    public Product toProduct() {
+        Store store = new Store();
+        store.setName(key.getStoreName());
+
+        Product.ProductKey productKey = new Product.ProductKey();
+        productKey.setId(key.getProductId());
+        productKey.setStoreName(key.getStoreName());
+        productKey.setPriceDate(priceDate);
+
+        Product product = new Product();
+        product.setKey(productKey);
+        product.setStore(store);
+        product.setCatalog(catalog);
+        product.setPrice(price);
+        return product;
+    }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    public static class LatestPriceKey implements Serializable {
+        private String productId;       // cod produs
+        private String storeName;       // magazin
+    }
+}
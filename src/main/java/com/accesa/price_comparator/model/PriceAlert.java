@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * A user-defined alert that fires when a product price
- * drops to (or below) the desired targetPrice.
+ * drops to (or below) the desired targetPrice, in any store or in the given one.
  */
 @Entity
 @Data
@@ -24,8 +24,11 @@ public class PriceAlert {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    // we store the FK as simple Long; no need for @ManyToOne here
-    private Long productId;
+    // product code ("P001"); kept as a plain column, no need for @ManyToOne here
+    private String productId;
+
+    /** only prices of this store count; null = any store */
+    private String storeName;
 
     private double targetPrice;
 
@@ -1,20 +1,30 @@
 package com.accesa.price_comparator.model;
 
+import com.accesa.price_comparator.event.ProductChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serializable;
 import java.time.LocalDate;
 
 /**
- * key represents combination of
+ * One price observation: product code + store + date (the key) and the price.
+ * The descriptive attributes live in the {@link CatalogProduct} of the code; their getters and setters
+ * are kept here (delegating to the catalog entry), so callers and the JSON shape are unchanged.
  */
 
 @Entity
-@Table(name = "product", uniqueConstraints = @UniqueConstraint(columnNames = {"id", "store_name", "price_date"}))
+@EntityListeners(ProductChangeListener.class)
+@Table(name = "product")
 @Data
 @NoArgsConstructor
+@JsonPropertyOrder({"key", "store", "productName", "productCategory", "brand", "packageQuantity", "packageUnit",
+        "price", "currency", "id", "priceDate"})
 public class Product {
 
     // Cheia compusă (id + store + date)
@@ -27,16 +37,16 @@ public class Product {
     @JoinColumn(name = "store_name", referencedColumnName = "name", nullable = false)
     private Store store;
 
-    // Atribute descriptive (snapshot pentru fiecare înregistrare)
-    private String productName;
-    private String productCategory;
-    private String brand;
-    private double packageQuantity;
-    private String packageUnit;
+    // Atribute descriptive: o singură înregistrare de catalog per cod de produs (product_catalog.id = product.id)
+    @ManyToOne(optional = false, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @JoinColumn(name = "id", referencedColumnName = "id", insertable = false, updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private CatalogProduct catalog;
 
     // Atribute de preţ
     private double price;
-    private String currency;
 
     // Gettere convenabile pentru cod şi dată (extras din cheie)
     public String getId() {
@@ -47,6 +57,66 @@ public class Product {
         return key != null ? key.getPriceDate() : null;
     }
 
+    // Atributele din catalog (delegate către CatalogProduct)
+    public String getProductName() {
+        return catalog != null ? catalog.getProductName() : null;
+    }
+
+    public void setProductName(String productName) {
+        catalog().setProductName(productName);
+    }
+
+    public String getProductCategory() {
+        return catalog != null ? catalog.getProductCategory() : null;
+    }
+
+    public void setProductCategory(String productCategory) {
+        catalog().setProductCategory(productCategory);
+    }
+
+    public String getBrand() {
+        return catalog != null ? catalog.getBrand() : null;
+    }
+
+    public void setBrand(String brand) {
+        catalog().setBrand(brand);
+    }
+
+    public double getPackageQuantity() {
+        return catalog != null ? catalog.getPackageQuantity() : 0;
+    }
+
+    public void setPackageQuantity(double packageQuantity) {
+        catalog().setPackageQuantity(packageQuantity);
+    }
+
+    public String getPackageUnit() {
+        return catalog != null ? catalog.getPackageUnit() : null;
+    }
+
+    public void setPackageUnit(String packageUnit) {
+        catalog().setPackageUnit(packageUnit);
+    }
+
+    public String getCurrency() {
+        return catalog != null ? catalog.getCurrency() : null;
+    }
+
+    public void setCurrency(String currency) {
+        catalog().setCurrency(currency);
+    }
+
+    // Creates the catalog entry on first use (for rows built in code, e.g. while parsing a feed)
+    private CatalogProduct catalog() {
+        if (catalog == null) {
+            catalog = new CatalogProduct();
+        }
+        if (catalog.getId() == null) {
+            catalog.setId(getId());
+        }
+        return catalog;
+    }
+
     // Definim cheia compusă ca @Embeddable
     @Embeddable
     @Data
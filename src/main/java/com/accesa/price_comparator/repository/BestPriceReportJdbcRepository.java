@@ -0,0 +1,101 @@
+package com.accesa.price_comparator.repository;
+
+import com.accesa.price_comparator.dto.BestPrice;
+import com.accesa.price_comparator.dto.CategoryBestValue;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Input and output of the best-price report job: streams the current prices and writes the report rows
+ * in JDBC batches. The job calls these inside one transaction, so a report date is replaced atomically.
+ */
+@Repository
+public class BestPriceReportJdbcRepository {
+
+    static final String SELECT_LATEST_PRICES =
+            "select l.product_id, l.store_name, l.price, c.product_name, c.product_category, c.package_quantity, " +
+            "c.package_unit from product_latest_price l join product_catalog c on c.id = l.product_id " +
+            "order by l.product_id, l.store_name";
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String DELETE_BEST_PRICES = "delete from best_price_report where report_date = ?";
+    private static final String DELETE_CATEGORY_BEST_VALUES =
+            "delete from category_best_value_report where report_date = ?";
+    private static final String INSERT_BEST_PRICE =
+            "insert into best_price_report (report_date, product_id, product_name, product_category, store_count, " +
+            "cheapest_store, cheapest_price, unit_price, unit, effective_store, effective_price, discount_percentage) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CATEGORY_BEST_VALUE =
+            "insert into category_best_value_report (report_date, product_category, unit, product_id, product_name, " +
+            "store_name, effective_unit_price) values (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Receives the rows of {@link #forEachLatestPrice}. */
+    @FunctionalInterface
+    public interface LatestPriceHandler {
+        void accept(String productId, String storeName, double price, String productName, String productCategory,
+                    double packageQuantity, String packageUnit);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BestPriceReportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams the current price of every product in every store, ordered by product (the rows of one
+     * product are consecutive). Must run inside a transaction: the driver only streams with auto-commit off.
+     */
+    public void forEachLatestPrice(LatestPriceHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_LATEST_PRICES);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString(1), rs.getString(2), rs.getDouble(3), rs.getString(4), rs.getString(5),
+                    rs.getDouble(6), rs.getString(7));
+        });
+    }
+
+    public void deleteReports(LocalDate reportDate) {
+        jdbcTemplate.update(DELETE_BEST_PRICES, Date.valueOf(reportDate));
+        jdbcTemplate.update(DELETE_CATEGORY_BEST_VALUES, Date.valueOf(reportDate));
+    }
+
+    public void insertBestPrices(LocalDate reportDate, Collection<BestPrice> rows) {
+        Date date = Date.valueOf(reportDate);
+        jdbcTemplate.batchUpdate(INSERT_BEST_PRICE, rows, rows.size(), (ps, r) -> {
+            ps.setDate(1, date);
+            ps.setString(2, r.productId());
+            ps.setString(3, r.productName());
+            ps.setString(4, r.productCategory());
+            ps.setInt(5, r.storeCount());
+            ps.setString(6, r.cheapestStore());
+            ps.setDouble(7, r.cheapestPrice());
+            if (r.unitPrice() != null) ps.setDouble(8, r.unitPrice()); else ps.setNull(8, Types.DOUBLE);
+            ps.setString(9, r.unit());
+            ps.setString(10, r.effectiveStore());
+            ps.setDouble(11, r.effectivePrice());
+            ps.setInt(12, r.discountPercentage());
+        });
+    }
+
+    public void insertCategoryBestValues(LocalDate reportDate, Collection<CategoryBestValue> rows) {
+        Date date = Date.valueOf(reportDate);
+        jdbcTemplate.batchUpdate(INSERT_CATEGORY_BEST_VALUE, rows, rows.size(), (ps, r) -> {
+            ps.setDate(1, date);
+            ps.setString(2, r.productCategory());
+            ps.setString(3, r.unit());
+            ps.setString(4, r.productId());
+            ps.setString(5, r.productName());
+            ps.setString(6, r.storeName());
+            ps.setDouble(7, r.effectiveUnitPrice());
+        });
+    }
+}
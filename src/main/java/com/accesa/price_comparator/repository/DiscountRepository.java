@@ -16,4 +16,7 @@ public interface DiscountRepository extends JpaRepository<Discount, Long> {
 
     // Găsește cea mai mare reducere activă la o anumită dată (ordonează descendent după procentaj și limitează la prima)
     Discount findTopByFromDateLessThanEqualAndToDateGreaterThanEqualOrderByPercentageOfDiscountDesc(LocalDate date1, LocalDate date2);
+
+    // Reducerile care nu au expirat înainte de data dată (încărcate în indexul de reduceri la pornire)
+    List<Discount> findByToDateGreaterThanEqual(LocalDate date);
 }
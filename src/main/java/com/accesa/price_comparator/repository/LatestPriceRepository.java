@@ -0,0 +1,40 @@
+package com.accesa.price_comparator.repository;
+
+import com.accesa.price_comparator.model.LatestPrice;
+import com.accesa.price_comparator.model.LatestPrice.LatestPriceKey;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads of {@code product_latest_price}; every query is served by its (product_id, store_name) primary key.
+ * Writes happen in {@link PriceFeedJdbcRepository#upsertLatestPrices} during ingestion.
+ */
+public interface LatestPriceRepository extends JpaRepository<LatestPrice, LatestPriceKey> {
+
+    /** Current prices of one product in every store (with its catalog entry). */
+    @EntityGraph(attributePaths = "catalog")
+    List<LatestPrice> findByKeyProductId(String productId);
+
+    /** Current prices of many products in one query (e.g. a basket or an ingest batch). */
+    @EntityGraph(attributePaths = "catalog")
+    List<LatestPrice> findByKeyProductIdIn(Collection<String> productIds);
+
+    /**
+     * Fills the table from the product history (newest row per product and store).
+     * Used once, when the table is still empty after an upgrade.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into product_latest_price (product_id, store_name, price_date, price) " +
+            "select distinct on (p.id, p.store_name) p.id, p.store_name, p.price_date, p.price " +
+            "from product p " +
+            "order by p.id, p.store_name, p.price_date desc " +
+            "on conflict (product_id, store_name) do nothing", nativeQuery = true)
+    int backfillFromHistory();
+}
@@ -0,0 +1,59 @@
+package com.accesa.price_comparator.repository;
+
+import com.accesa.price_comparator.model.PriceAlert;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Alert writes of the {@code AlertWriteBehind} queue: ids are reserved from the identity sequence in blocks
+ * and alert states are written as one JDBC batch of upserts. Also triggers, in one statement, every alert
+ * the current prices already satisfy.
+ */
+@Repository
+public class PriceAlertJdbcRepository {
+
+    private static final String RESERVE_IDS =
+            "select nextval(pg_get_serial_sequence('price_alert', 'id')) from generate_series(1, ?)";
+    // an alert never goes back to untriggered, whatever order concurrent writers commit in
+    private static final String UPSERT =
+            "insert into price_alert (id, product_id, store_name, target_price, triggered) values (?, ?, ?, ?, ?) " +
+            "on conflict (id) do update set product_id = excluded.product_id, store_name = excluded.store_name, " +
+            "target_price = excluded.target_price, triggered = price_alert.triggered or excluded.triggered";
+    // one set-based pass over the untriggered alerts and the current prices (the price history is not read)
+    static final String TRIGGER_SATISFIED =
+            "update price_alert a set triggered = true from product_latest_price l " +
+            "where not a.triggered and l.product_id = a.product_id and l.price <= a.target_price " +
+            "and (a.store_name is null or a.store_name = l.store_name) returning a.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceAlertJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Takes {@code count} ids from the same sequence the identity column uses. */
+    public List<Long> reserveIds(int count) {
+        return jdbcTemplate.queryForList(RESERVE_IDS, Long.class, count);
+    }
+
+    /** Inserts or updates the given alerts in one transaction. */
+    @Transactional
+    public void upsert(Collection<PriceAlert> alerts) {
+        jdbcTemplate.batchUpdate(UPSERT, alerts, alerts.size(), (ps, a) -> {
+            ps.setLong(1, a.getId());
+            ps.setString(2, a.getProductId());
+            ps.setString(3, a.getStoreName());
+            ps.setDouble(4, a.getTargetPrice());
+            ps.setBoolean(5, a.isTriggered());
+        });
+    }
+
+    /** Marks every untriggered alert whose target is reached by a current price as triggered; returns their ids. */
+    public List<Long> triggerSatisfied() {
+        return jdbcTemplate.queryForList(TRIGGER_SATISFIED, Long.class);
+    }
+}
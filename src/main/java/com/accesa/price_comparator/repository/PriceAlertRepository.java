@@ -9,5 +9,5 @@ import java.util.List;
 @Repository
 public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
     List<PriceAlert> findByTriggeredFalse();
-    List<PriceAlert> findByProductId(Long productId);
+    List<PriceAlert> findByProductId(String productId);
 }
@@ -0,0 +1,179 @@
+package com.accesa.price_comparator.repository;
+
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Product;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writes for feed ingestion: JDBC batch upserts instead of one {@code save()} per entity.
+ * Upserts are keyed on the natural keys, so re-importing the same file is idempotent.
+ */
+@Repository
+public class PriceFeedJdbcRepository {
+
+    private static final String UPSERT_STORE =
+            "insert into store (name) values (?) on conflict (name) do nothing";
+
+    // only a row at least as new as the one the catalog was taken from replaces it, and the row is only rewritten
+    // when that date moved or the feed changed one of the attributes
+    private static final String UPSERT_CATALOG =
+            "insert into product_catalog (id, product_name, product_category, brand, package_quantity, package_unit, " +
+            "currency, last_price_date) values (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "on conflict (id) do update set " +
+            "product_name = excluded.product_name, product_category = excluded.product_category, " +
+            "brand = excluded.brand, package_quantity = excluded.package_quantity, " +
+            "package_unit = excluded.package_unit, currency = excluded.currency, " +
+            "last_price_date = excluded.last_price_date " +
+            "where (product_catalog.last_price_date is null " +
+            "or excluded.last_price_date >= product_catalog.last_price_date) " +
+            "and (excluded.last_price_date is distinct from product_catalog.last_price_date " +
+            "or (product_catalog.product_name, product_catalog.product_category, product_catalog.brand, " +
+            "product_catalog.package_quantity, product_catalog.package_unit, product_catalog.currency) " +
+            "is distinct from (excluded.product_name, excluded.product_category, excluded.brand, " +
+            "excluded.package_quantity, excluded.package_unit, excluded.currency))";
+
+    private static final String UPSERT_PRODUCT =
+            "insert into product (id, store_name, price_date, price) values (?, ?, ?, ?) " +
+            "on conflict (id, store_name, price_date) do update set price = excluded.price";
+
+    // only a newer (or same-day) row replaces the current price; the attributes are in product_catalog
+    private static final String UPSERT_LATEST_PRICE =
+            "insert into product_latest_price (product_id, store_name, price_date, price) values (?, ?, ?, ?) " +
+            "on conflict (product_id, store_name) do update set " +
+            "price_date = excluded.price_date, price = excluded.price " +
+            "where excluded.price_date >= product_latest_price.price_date";
+
+    private static final Comparator<Product> BY_PRODUCT_AND_STORE =
+            Comparator.comparing(Product::getId).thenComparing(p -> p.getKey().getStoreName());
+
+    private static final String UPSERT_DISCOUNT =
+            "insert into discount (product_id, product_name, brand, package_quantity, package_unit, " +
+            "product_category, from_date, to_date, percentage_of_discount, store_name, price_date) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "on conflict (product_id, store_name, from_date) do update set " +
+            "product_name = excluded.product_name, brand = excluded.brand, " +
+            "package_quantity = excluded.package_quantity, package_unit = excluded.package_unit, " +
+            "product_category = excluded.product_category, to_date = excluded.to_date, " +
+            "percentage_of_discount = excluded.percentage_of_discount, price_date = excluded.price_date";
+
+    // 0 until the first change (a new sequence is not "called" yet)
+    private static final String SELECT_DATA_VERSION =
+            "select case when is_called then last_value else 0 end from price_data_version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceFeedJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void upsertStores(Collection<String> storeNames) {
+        jdbcTemplate.batchUpdate(UPSERT_STORE, storeNames, storeNames.size(),
+                (ps, name) -> ps.setString(1, name));
+    }
+
+    /**
+     * Writes the price rows, after upserting the catalog entries they reference
+     * (one per product code, from the newest row of the batch, in code order; an entry taken from a newer
+     * row than that is kept).
+     */
+    public void upsertProducts(Collection<Product> products) {
+        Map<String, Product> newest = new HashMap<>();
+        for (Product p : products) {
+            newest.merge(p.getId(), p, (a, b) -> b.getPriceDate().isBefore(a.getPriceDate()) ? a : b);
+        }
+        List<Product> catalog = newest.values().stream().sorted(Comparator.comparing(Product::getId)).toList();
+        jdbcTemplate.batchUpdate(UPSERT_CATALOG, catalog, catalog.size(), (ps, p) -> {
+            ps.setString(1, p.getId());
+            ps.setString(2, p.getProductName());
+            ps.setString(3, p.getProductCategory());
+            ps.setString(4, p.getBrand());
+            ps.setDouble(5, p.getPackageQuantity());
+            ps.setString(6, p.getPackageUnit());
+            ps.setString(7, p.getCurrency());
+            ps.setDate(8, Date.valueOf(p.getPriceDate()));
+        });
+        jdbcTemplate.batchUpdate(UPSERT_PRODUCT, products, products.size(), (ps, p) -> {
+            ps.setString(1, p.getId());
+            ps.setString(2, p.getKey().getStoreName());
+            ps.setDate(3, Date.valueOf(p.getPriceDate()));
+            ps.setDouble(4, p.getPrice());
+        });
+    }
+
+    /**
+     * Moves {@code product_latest_price} forward for the given history rows.
+     * Only the newest row per product and store is sent (one statement may not update a row twice),
+     * in key order, so concurrent batches lock the same rows in the same order.
+     */
+    public void upsertLatestPrices(Collection<Product> products) {
+        Map<String, Product> newest = new HashMap<>();
+        for (Product p : products) {
+            newest.merge(p.getId() + '|' + p.getKey().getStoreName(), p,
+                    (a, b) -> b.getPriceDate().isBefore(a.getPriceDate()) ? a : b);
+        }
+        List<Product> ordered = newest.values().stream().sorted(BY_PRODUCT_AND_STORE).toList();
+        jdbcTemplate.batchUpdate(UPSERT_LATEST_PRICE, ordered, ordered.size(), this::bindLatestPrice);
+    }
+
+    private void bindLatestPrice(PreparedStatement ps, Product p) throws SQLException {
+        ps.setString(1, p.getId());
+        ps.setString(2, p.getKey().getStoreName());
+        ps.setDate(3, Date.valueOf(p.getPriceDate()));
+        ps.setDouble(4, p.getPrice());
+    }
+
+    /**
+     * Current version of the price data (stores, catalog, history, latest prices): it changes with every
+     * statement that writes one of them, including writes that are not committed yet or were rolled back.
+     */
+    public long dataVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_DATA_VERSION, Long.class);
+        return version != null ? version : 0;
+    }
+
+    /**
+     * Upserts the discounts in one JDBC batch and copies the generated (or existing) ids back
+     * onto the entities, so listeners receive fully identified rows.
+     */
+    public void upsertDiscounts(List<Discount> discounts) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(UPSERT_DISCOUNT, new String[]{"id"})) {
+                for (Discount d : discounts) {
+                    ps.setString(1, d.getProductId());
+                    ps.setString(2, d.getProductName());
+                    ps.setString(3, d.getBrand());
+                    ps.setDouble(4, d.getPackageQuantity());
+                    ps.setString(5, d.getPackageUnit());
+                    ps.setString(6, d.getProductCategory());
+                    ps.setDate(7, Date.valueOf(d.getFromDate()));
+                    ps.setDate(8, Date.valueOf(d.getToDate()));
+                    ps.setInt(9, d.getPercentageOfDiscount());
+                    ps.setString(10, d.getStore().getName());
+                    ps.setDate(11, d.getPriceDate() != null ? Date.valueOf(d.getPriceDate()) : null);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    Iterator<Discount> it = discounts.iterator();
+                    while (keys.next() && it.hasNext()) {
+                        it.next().setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
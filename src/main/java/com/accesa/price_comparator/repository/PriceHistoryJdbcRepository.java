@@ -0,0 +1,47 @@
+package com.accesa.price_comparator.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Reads the raw (product, store, date, price) tuples of the product table without materializing entities.
+ */
+@Repository
+public class PriceHistoryJdbcRepository {
+
+    private static final String SELECT_POINTS =
+            "select id, store_name, price_date, price from product order by id, store_name, price_date";
+    private static final int FETCH_SIZE = 10_000;
+
+    /** Receives the rows of {@link #forEachPricePoint}; {@code epochDay} is {@code LocalDate.toEpochDay()}. */
+    @FunctionalInterface
+    public interface PricePointHandler {
+        void accept(String productId, String storeName, int epochDay, double price);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PriceHistoryJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams every price row ordered by product, store and date.
+     * Runs in a read-only transaction because the PostgreSQL driver only streams through a cursor
+     * (fetch size) with auto-commit off.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPricePoint(PricePointHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_POINTS);
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString(1), rs.getString(2),
+                    (int) rs.getDate(3).toLocalDate().toEpochDay(), rs.getDouble(4));
+        });
+    }
+}
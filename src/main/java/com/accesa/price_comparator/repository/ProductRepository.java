@@ -1,16 +1,28 @@
 package com.accesa.price_comparator.repository;
 
+import com.accesa.price_comparator.config.CacheConfig;
 import com.accesa.price_comparator.model.Product;
 import com.accesa.price_comparator.model.Product.ProductKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, ProductKey> {
     // Căutare produse după nume (poate returna multiple rezultate dacă același produs există în mai multe magazine)
-    List<Product> findByProductName(String productName);
+    @Query("select p from Product p join fetch p.catalog c where c.productName = :productName")
+    List<Product> findByProductName(@Param("productName") String productName);
 
-    // Găsește toate înregistrările produsului după cod (id-ul produsului)
+    // Găsește toate înregistrările produsului după cod (id-ul produsului); cache evacuat la următorul import
+    @Cacheable(CacheConfig.PRODUCT_HISTORY)
     List<Product> findByKeyId(String id);
 
     // Găsește înregistrările produsului după cod și magazin (ignorând data, returnează istoricul prețurilor în acel magazin)
@@ -22,4 +34,36 @@ public interface ProductRepository extends JpaRepository<Product, ProductKey> {
      *  - key.priceDate  → segmentul „priceDate” din cheia compusă
      */
     Product findTopByKeyIdOrderByKeyPriceDateDesc(String id);
+
+    /**
+     * Newest snapshot for every (product, store) pair, in a single query:
+     * the history rows referenced by {@code product_latest_price} (one join, no max() per group).
+     * Used to build the in-memory indexes at startup.
+     */
+    @Query("select p from Product p join fetch p.catalog join LatestPrice l on l.key.productId = p.key.id " +
+            "and l.key.storeName = p.key.storeName and l.priceDate = p.key.priceDate")
+    List<Product> findLatestSnapshots();
+
+    /**
+     * Keyset page of a product's rows, ordered by (store, date): the rows after the given position.
+     * Served by the primary key index, so the cost does not grow with the page number.
+     */
+    @Query("select p from Product p where p.key.id = :id and (p.key.storeName > :storeName or " +
+            "(p.key.storeName = :storeName and p.key.priceDate > :priceDate)) " +
+            "order by p.key.storeName, p.key.priceDate")
+    List<Product> findByKeyIdAfter(@Param("id") String id,
+                                   @Param("storeName") String storeName,
+                                   @Param("priceDate") LocalDate priceDate,
+                                   Limit limit);
+
+    /**
+     * Every product row as a cursor-backed stream (read-only, fetched in chunks); must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p join fetch p.store join fetch p.catalog")
+    Stream<Product> streamAll();
 }
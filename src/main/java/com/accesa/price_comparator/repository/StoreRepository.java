@@ -1,9 +1,23 @@
 package com.accesa.price_comparator.repository;
 
+import com.accesa.price_comparator.config.CacheConfig;
 import com.accesa.price_comparator.model.Store;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface StoreRepository extends JpaRepository<Store, String> {
     // We can add custom methods if needed, for example:
     // boolean existsByName(String name);
+
+    // The store list changes only when a feed brings a new store, so both lookups are cached
+    @Cacheable(CacheConfig.STORES)
+    @Override
+    List<Store> findAll();
+
+    @Cacheable(CacheConfig.STORES)
+    @Override
+    Optional<Store> findById(String name);
 }
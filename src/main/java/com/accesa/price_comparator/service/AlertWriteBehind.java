@@ -0,0 +1,282 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.model.PriceAlert;
+import com.accesa.price_comparator.repository.PriceAlertJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for alert writes, so creating and triggering alerts does not wait for a commit.
+ * <p>
+ * Writes are coalesced per alert id (only the latest state is written) and flushed by one background thread
+ * as a JDBC batch of upserts once {@code batch-size} alerts are pending or {@code flush-millis} have passed.
+ * When {@code capacity} alerts are pending, writers wait up to {@code enqueue-timeout-millis} for the flusher
+ * and then write their alerts themselves, so a slow database slows the writers down instead of growing the queue.
+ * When a batch fails its alerts are written one at a time: an alert the database rejects for good (a constraint
+ * violation, e.g. an unknown store) is logged and dropped, so it cannot hold up the others; on any other failure
+ * the unwritten alerts are queued again and retried. Whatever is still pending at shutdown is written before the
+ * data source closes.
+ * Ids are reserved from the database sequence in blocks, so a new alert has its id before it is written.
+ */
+@Component
+public class AlertWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(AlertWriteBehind.class);
+
+    private static final int ID_BLOCK = 100;
+
+    private final PriceAlertJdbcRepository alertJdbc;
+    private final int batchSize;
+    private final int capacity;
+    private final long flushMillis;
+    private final long enqueueTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushRequested = lock.newCondition();
+    // alert id -> latest unwritten state, in the order the alerts were first queued
+    private final LinkedHashMap<Long, PriceAlert> pending = new LinkedHashMap<>();
+    // the batch being written, still visible to lookups until it is committed
+    private Map<Long, PriceAlert> writing = Map.of();
+    private boolean running = true;
+
+    private final Deque<Long> freeIds = new ArrayDeque<>();
+    private final Thread flusher = new Thread(this::flushLoop, "alert-write-behind");
+
+    public AlertWriteBehind(PriceAlertJdbcRepository alertJdbc,
+                            @Value("${price-comparator.alerts.write-behind.batch-size:500}") int batchSize,
+                            @Value("${price-comparator.alerts.write-behind.capacity:10000}") int capacity,
+                            @Value("${price-comparator.alerts.write-behind.flush-millis:200}") long flushMillis,
+                            @Value("${price-comparator.alerts.write-behind.enqueue-timeout-millis:1000}") long enqueueTimeoutMillis) {
+        this.alertJdbc = alertJdbc;
+        this.batchSize = batchSize;
+        this.capacity = Math.max(capacity, batchSize);
+        this.flushMillis = flushMillis;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Stops the flusher and writes everything still pending. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        try {
+            while (flushBatch() > 0) {
+                // until the queue is empty
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not write {} queued alert changes at shutdown", pendingCount(), e);
+        }
+    }
+
+    /** A new alert id, taken from a block reserved in the database. */
+    public long newId() {
+        synchronized (freeIds) {
+            if (freeIds.isEmpty()) {
+                freeIds.addAll(alertJdbc.reserveIds(ID_BLOCK));
+            }
+            return freeIds.poll();
+        }
+    }
+
+    public void enqueue(PriceAlert alert) {
+        enqueue(List.of(alert));
+    }
+
+    /**
+     * Queues the current state of the given alerts. Waits while the queue is full; alerts that still do
+     * not fit after {@code enqueue-timeout-millis} (or arrive after shutdown) are written by the caller.
+     */
+    public void enqueue(Collection<PriceAlert> alerts) {
+        List<PriceAlert> overflow = new ArrayList<>();
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMillis);
+            for (PriceAlert alert : alerts) {
+                while (running && pending.size() >= capacity && !pending.containsKey(alert.getId()) && remaining > 0) {
+                    flushRequested.signal();
+                    remaining = notFull.awaitNanos(remaining);
+                }
+                if (!running || (pending.size() >= capacity && !pending.containsKey(alert.getId()))) {
+                    overflow.add(copy(alert));
+                    continue;
+                }
+                pending.put(alert.getId(), copy(alert));
+            }
+            if (pending.size() >= batchSize) flushRequested.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing alert changes", e);
+        } finally {
+            lock.unlock();
+        }
+        if (!overflow.isEmpty()) {
+            alertJdbc.upsert(overflow);
+        }
+    }
+
+    /** The queued (not yet committed) state of an alert, if there is one. */
+    public Optional<PriceAlert> find(Long id) {
+        lock.lock();
+        try {
+            PriceAlert alert = pending.get(id);
+            if (alert == null) alert = writing.get(id);
+            return Optional.ofNullable(alert).map(AlertWriteBehind::copy);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the queued changes to the untriggered alerts read from the database: queued states replace
+     * the stored ones, alerts queued as triggered are dropped and queued new alerts are added.
+     */
+    public List<PriceAlert> withUnwritten(List<PriceAlert> storedActive) {
+        Map<Long, PriceAlert> byId = new LinkedHashMap<>();
+        storedActive.forEach(a -> byId.put(a.getId(), a));
+        lock.lock();
+        try {
+            writing.values().forEach(a -> byId.put(a.getId(), copy(a)));
+            pending.values().forEach(a -> byId.put(a.getId(), copy(a)));
+        } finally {
+            lock.unlock();
+        }
+        byId.values().removeIf(PriceAlert::isTriggered);
+        return new ArrayList<>(byId.values());
+    }
+
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + writing.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            lock.lock();
+            try {
+                if (running && pending.size() < batchSize) {
+                    flushRequested.await(flushMillis, TimeUnit.MILLISECONDS);
+                }
+                if (!running) return;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                while (flushBatch() >= batchSize) {
+                    // a full batch was written, more may be waiting
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not write queued alert changes, retrying in {} ms", flushMillis, e);
+                try {
+                    Thread.sleep(flushMillis);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Writes up to batchSize queued alerts; returns how many were taken from the queue
+    private int flushBatch() {
+        Map<Long, PriceAlert> batch = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Long, PriceAlert>> it = pending.entrySet().iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                Map.Entry<Long, PriceAlert> e = it.next();
+                batch.put(e.getKey(), e.getValue());
+                it.remove();
+            }
+            writing = batch;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (batch.isEmpty()) return 0;
+        try {
+            alertJdbc.upsert(batch.values());
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} alert changes failed, writing them one at a time", batch.size(), e);
+            writeOneByOne(batch);
+        } finally {
+            lock.lock();
+            try {
+                writing = Map.of();
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.debug("Wrote {} alert changes", batch.size());
+        return batch.size();
+    }
+
+    // Writes the alerts of a failed batch separately, dropping the ones that violate a constraint;
+    // on another failure the alerts not written yet are queued again and the failure is rethrown
+    private void writeOneByOne(Map<Long, PriceAlert> batch) {
+        Iterator<PriceAlert> it = batch.values().iterator();
+        while (it.hasNext()) {
+            PriceAlert alert = it.next();
+            try {
+                alertJdbc.upsert(List.of(alert));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Dropping alert change {} rejected by the database: {}", alert, e.getMessage());
+            } catch (RuntimeException e) {
+                lock.lock();
+                try {
+                    // a state queued meanwhile is newer than the failed one
+                    pending.putIfAbsent(alert.getId(), alert);
+                    it.forEachRemaining(a -> pending.putIfAbsent(a.getId(), a));
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static PriceAlert copy(PriceAlert alert) {
+        return PriceAlert.builder()
+                .id(alert.getId())
+                .productId(alert.getProductId())
+                .storeName(alert.getStoreName())
+                .targetPrice(alert.getTargetPrice())
+                .triggered(alert.isTriggered())
+                .build();
+    }
+}
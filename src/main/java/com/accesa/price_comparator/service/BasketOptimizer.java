@@ -0,0 +1,101 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.BasketLine;
+import com.accesa.price_comparator.dto.BasketPlan;
+import com.accesa.price_comparator.dto.PriceQuote;
+import com.accesa.price_comparator.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cost-minimising basket allocation with a store limit and a fixed cost per visited store.
+ * Latest prices come from {@link LatestPriceIndex} and their effective (discounted) prices from
+ * {@link EffectivePriceEngine}, then {@link BasketSolver} searches the allocation within a time budget.
+ */
+@Component
+public class BasketOptimizer {
+
+    private final LatestPriceIndex latestPriceIndex;
+    private final EffectivePriceEngine effectivePrices;
+    private final long timeBudgetMillis;
+
+    public BasketOptimizer(LatestPriceIndex latestPriceIndex,
+                           EffectivePriceEngine effectivePrices,
+                           @Value("${price-comparator.basket.time-budget-ms:40}") long timeBudgetMillis) {
+        this.latestPriceIndex = latestPriceIndex;
+        this.effectivePrices = effectivePrices;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * @param productIds     basket content (a product listed twice is bought twice)
+     * @param maxStores      maximum number of stores to visit; 0 or less means no limit
+     * @param storeVisitCost fixed cost added for every visited store
+     */
+    public BasketPlan optimize(List<String> productIds, int maxStores, double storeVisitCost) {
+        long start = System.nanoTime();
+
+        // 1. latest prices of every item, in one bulk lookup
+        List<String> items = new ArrayList<>();
+        List<String> unavailable = new ArrayList<>();
+        List<Map<String, PriceQuote>> offers = new ArrayList<>();
+        Map<String, Integer> storeIndex = new LinkedHashMap<>();
+        Map<String, List<Product>> latestPrices = latestPriceIndex.latestPrices(productIds);
+        for (String pid : productIds) {
+            List<Product> prices = latestPrices.getOrDefault(pid, List.of());
+            if (prices.isEmpty()) {
+                unavailable.add(pid);
+                continue;
+            }
+            Map<String, PriceQuote> byStore = new HashMap<>();
+            for (PriceQuote q : effectivePrices.quotes(prices)) {
+                Product p = q.product();
+                byStore.put(p.getKey().getStoreName(), q);
+                storeIndex.putIfAbsent(p.getKey().getStoreName(), storeIndex.size());
+            }
+            items.add(pid);
+            offers.add(byStore);
+        }
+        List<String> storeNames = new ArrayList<>(storeIndex.keySet());
+
+        // 2. effective price matrix [item][store]
+        double[][] cost = new double[items.size()][storeNames.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Arrays.fill(cost[i], BasketSolver.NOT_SOLD);
+            for (PriceQuote q : offers.get(i).values()) {
+                cost[i][storeIndex.get(q.product().getKey().getStoreName())] = q.effectivePrice();
+            }
+        }
+
+        // 3. search
+        BasketSolver.Result result = new BasketSolver(cost, maxStores, storeVisitCost, timeBudgetMillis * 1_000_000L).solve();
+
+        // 4. assemble the plan
+        Map<String, List<BasketLine>> allocation = new LinkedHashMap<>();
+        double itemsCost = 0;
+        for (int i = 0; i < items.size(); i++) {
+            int s = result.storeOfItem()[i];
+            if (s < 0) {
+                unavailable.add(items.get(i));
+                continue;
+            }
+            String store = storeNames.get(s);
+            PriceQuote quote = offers.get(i).get(store);
+            BasketLine line = new BasketLine(quote.product(), quote.listPrice(), quote.effectivePrice(),
+                    quote.discountPercentage());
+            allocation.computeIfAbsent(store, k -> new ArrayList<>()).add(line);
+            itemsCost += line.effectivePrice();
+        }
+        double visitCost = Math.max(0, storeVisitCost) * allocation.size();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new BasketPlan(allocation, itemsCost, visitCost, itemsCost + visitCost, allocation.size(),
+                unavailable, result.optimal(), elapsedMillis);
+    }
+}
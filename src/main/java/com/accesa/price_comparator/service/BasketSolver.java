@@ -0,0 +1,194 @@
+package com.accesa.price_comparator.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Branch-and-bound solver for the basket problem:
+ * pick at most {@code maxStores} stores and buy every item in the cheapest chosen store,
+ * minimising item cost plus a fixed cost per visited store.
+ * <p>
+ * Items that cannot be covered within the store limit are left unassigned; each of them costs
+ * {@link #UNCOVERED_PENALTY}, so the solver first maximises coverage and then minimises cost.
+ * The search stops at the time budget and returns the best allocation found so far.
+ */
+final class BasketSolver {
+
+    /** Marks an item that is not sold in a store. */
+    static final double NOT_SOLD = Double.POSITIVE_INFINITY;
+
+    private static final double UNCOVERED_PENALTY = 1e9;
+    private static final double EPSILON = 1e-9;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    private final double[][] cost;      // [item][store]
+    private final int items;
+    private final int stores;
+    private final int maxStores;
+    private final double visitCost;
+    private final long deadline;
+
+    private int[] order;                // stores, most useful first
+    private double[][] suffixMin;       // [depth][item]: cheapest price among order[depth..]
+    private double[][] minAtDepth;      // [depth][item]: cheapest price among chosen stores
+    private boolean[] chosen;
+
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private boolean[] bestChosen;
+    private long nodes;
+    private boolean timedOut;
+
+    /** Result: the store index per item ({@code -1} = not covered) and whether the search was exhaustive. */
+    record Result(int[] storeOfItem, boolean optimal) {
+    }
+
+    BasketSolver(double[][] cost, int maxStores, double visitCost, long budgetNanos) {
+        this.cost = cost;
+        this.items = cost.length;
+        this.stores = items == 0 ? 0 : cost[0].length;
+        this.maxStores = maxStores <= 0 ? stores : Math.min(maxStores, stores);
+        this.visitCost = Math.max(0, visitCost);
+        this.deadline = System.nanoTime() + budgetNanos;
+    }
+
+    Result solve() {
+        if (items == 0 || stores == 0) {
+            int[] none = new int[items];
+            Arrays.fill(none, -1);
+            return new Result(none, true);
+        }
+        orderStores();
+        precomputeSuffixMinima();
+        greedyIncumbent();
+
+        minAtDepth = new double[stores + 1][items];
+        Arrays.fill(minAtDepth[0], NOT_SOLD);
+        chosen = new boolean[stores];
+        search(0, 0);
+        return new Result(assign(bestChosen), !timedOut);
+    }
+
+    // Stores that are cheapest for many items go first: good solutions are found early and prune more
+    private void orderStores() {
+        int[] cheapestFor = new int[stores];
+        for (double[] row : cost) {
+            int best = -1;
+            for (int s = 0; s < stores; s++) {
+                if (row[s] < NOT_SOLD && (best < 0 || row[s] < row[best])) best = s;
+            }
+            if (best >= 0) cheapestFor[best]++;
+        }
+        order = IntStream.range(0, stores).boxed()
+                .sorted(Comparator.comparingInt((Integer s) -> cheapestFor[s]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private void precomputeSuffixMinima() {
+        suffixMin = new double[stores + 1][items];
+        Arrays.fill(suffixMin[stores], NOT_SOLD);
+        for (int d = stores - 1; d >= 0; d--) {
+            int s = order[d];
+            for (int i = 0; i < items; i++) {
+                suffixMin[d][i] = Math.min(suffixMin[d + 1][i], cost[i][s]);
+            }
+        }
+    }
+
+    // Adds the store with the largest saving until the limit is reached or nothing improves
+    private void greedyIncumbent() {
+        boolean[] picked = new boolean[stores];
+        double[] current = new double[items];
+        Arrays.fill(current, NOT_SOLD);
+        double currentCost = objective(current, 0);
+        for (int count = 0; count < maxStores; count++) {
+            int bestStore = -1;
+            double bestValue = currentCost;
+            for (int s = 0; s < stores; s++) {
+                if (picked[s]) continue;
+                double value = count * visitCost + visitCost;
+                for (int i = 0; i < items; i++) {
+                    value += itemCost(Math.min(current[i], cost[i][s]));
+                }
+                if (value < bestValue - EPSILON) {
+                    bestValue = value;
+                    bestStore = s;
+                }
+            }
+            if (bestStore < 0) break;
+            picked[bestStore] = true;
+            for (int i = 0; i < items; i++) {
+                current[i] = Math.min(current[i], cost[i][bestStore]);
+            }
+            currentCost = bestValue;
+        }
+        bestCost = currentCost;
+        bestChosen = picked;
+    }
+
+    private void search(int depth, int count) {
+        if (timedOut || (++nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline)) {
+            timedOut = true;
+            return;
+        }
+        double[] current = minAtDepth[depth];
+
+        double value = objective(current, count);
+        if (value < bestCost - EPSILON) {
+            bestCost = value;
+            bestChosen = chosen.clone();
+        }
+        if (depth == stores || count == maxStores) return;
+
+        // lower bound: every remaining item at its cheapest price among chosen + undecided stores
+        double bound = count * visitCost;
+        for (int i = 0; i < items; i++) {
+            bound += itemCost(Math.min(current[i], suffixMin[depth][i]));
+        }
+        if (bound >= bestCost - EPSILON) return;
+
+        int store = order[depth];
+        double[] next = minAtDepth[depth + 1];
+
+        // branch 1: visit the store
+        boolean improves = false;
+        for (int i = 0; i < items; i++) {
+            next[i] = Math.min(current[i], cost[i][store]);
+            if (next[i] < current[i]) improves = true;
+        }
+        if (improves) {
+            chosen[store] = true;
+            search(depth + 1, count + 1);
+            chosen[store] = false;
+        }
+
+        // branch 2: skip the store (the buffer of depth + 1 may have been overwritten, so reset it)
+        System.arraycopy(current, 0, next, 0, items);
+        search(depth + 1, count);
+    }
+
+    private double objective(double[] current, int count) {
+        double value = count * visitCost;
+        for (int i = 0; i < items; i++) {
+            value += itemCost(current[i]);
+        }
+        return value;
+    }
+
+    private static double itemCost(double price) {
+        return Math.min(price, UNCOVERED_PENALTY);
+    }
+
+    private int[] assign(boolean[] picked) {
+        int[] storeOfItem = new int[items];
+        for (int i = 0; i < items; i++) {
+            int best = -1;
+            for (int s = 0; s < stores; s++) {
+                if (picked[s] && cost[i][s] < NOT_SOLD && (best < 0 || cost[i][s] < cost[i][best])) best = s;
+            }
+            storeOfItem[i] = best;
+        }
+        return storeOfItem;
+    }
+}
@@ -0,0 +1,322 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.BestPrice;
+import com.accesa.price_comparator.dto.CategoryBestValue;
+import com.accesa.price_comparator.dto.ReportJobStatus;
+import com.accesa.price_comparator.dto.ReportJobStatus.State;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.repository.BestPriceReportJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch job behind the "cheapest store per product" and "best unit value per category" reports
+ * (tables {@code best_price_report} and {@code category_best_value_report}, one set of rows per report date).
+ * <p>
+ * The current prices ({@code product_latest_price}) are streamed once, ordered by product; every
+ * {@code chunk-size} products form a chunk that is computed on a dedicated {@link ForkJoinPool}
+ * (split in halves down to small slices). At most two chunks per worker are in flight; finished chunks
+ * are written in JDBC batches, in order, while the stream goes on. Per product: the cheapest store,
+ * its unit price and the cheapest price after the discounts active on the report date.
+ * The whole run is one transaction, so readers see either the previous report of the date or the new one.
+ * Runs nightly ({@code price-comparator.reports.cron}) or on demand; progress is available from {@link #status()}.
+ */
+@Service
+public class BestPriceReportJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BestPriceReportJob.class);
+    private static final int SLICE = 256;
+    private static final long LOG_EVERY_PRODUCTS = 100_000;
+
+    private final BestPriceReportJdbcRepository reportRepo;
+    private final DiscountIndex discountIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int parallelism;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress;
+
+    public BestPriceReportJob(BestPriceReportJdbcRepository reportRepo,
+                              DiscountIndex discountIndex,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${price-comparator.reports.parallelism:0}") int parallelism,
+                              @Value("${price-comparator.reports.chunk-size:5000}") int chunkSize) {
+        this.reportRepo = reportRepo;
+        this.discountIndex = discountIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${price-comparator.reports.cron:0 30 2 * * *}")
+    public void nightly() {
+        if (!start(LocalDate.now())) {
+            log.warn("Nightly best-price report skipped: a run is still in progress");
+        }
+    }
+
+    /** Starts a run for the given date in the background; returns {@code false} if one is already running. */
+    public boolean start(LocalDate reportDate) {
+        if (!running.compareAndSet(false, true)) return false;
+        Progress p = new Progress(reportDate);
+        progress = p;
+        Thread thread = new Thread(() -> {
+            try {
+                run(p);
+            } finally {
+                running.set(false);
+            }
+        }, "best-price-report");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /** Progress of the current run, or the outcome of the last one. */
+    public ReportJobStatus status() {
+        Progress p = progress;
+        return p == null
+                ? new ReportJobStatus(State.IDLE, null, null, null, 0, 0, 0, 0, null)
+                : p.status();
+    }
+
+    /** Runs the report for the given date on the calling thread (failures are logged and kept in the status). */
+    void run(LocalDate reportDate) {
+        Progress p = new Progress(reportDate);
+        progress = p;
+        run(p);
+    }
+
+    private void run(Progress p) {
+        LocalDate reportDate = p.reportDate;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Map<String, Integer> discounts = activeDiscounts(reportDate);
+            transactionTemplate.executeWithoutResult(tx -> {
+                reportRepo.deleteReports(reportDate);
+                Map<String, CategoryBestValue> categories = new HashMap<>();
+                Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+                List<ProductPrices> chunk = new ArrayList<>(chunkSize);
+                ProductPrices[] current = new ProductPrices[1];
+
+                reportRepo.forEachLatestPrice((productId, storeName, price, name, category, quantity, unit) -> {
+                    p.rowsRead++;
+                    if (current[0] == null || !current[0].productId.equals(productId)) {
+                        current[0] = new ProductPrices(productId, name, category, quantity, unit);
+                        chunk.add(current[0]);
+                        if (chunk.size() > chunkSize) {
+                            // the last product may still receive rows: it opens the next chunk
+                            ProductPrices open = chunk.remove(chunk.size() - 1);
+                            submit(pool, inFlight, chunk, discounts, reportDate, categories);
+                            chunk.clear();
+                            chunk.add(open);
+                        }
+                    }
+                    current[0].stores.add(storeName);
+                    current[0].prices.add(price);
+                });
+                submit(pool, inFlight, chunk, discounts, reportDate, categories);
+                while (!inFlight.isEmpty()) {
+                    write(inFlight.removeFirst().join(), reportDate, categories);
+                }
+                reportRepo.insertCategoryBestValues(reportDate, categories.values());
+                p.categories = categories.size();
+            });
+            p.finish(null);
+            log.info("Best-price report {} done: {} rows, {} products, {} categories in {} ms ({} rows/s)",
+                    reportDate, p.rowsRead, p.productsDone, p.categories, p.elapsedMillis(),
+                    Math.round(p.rowsPerSecond()));
+        } catch (RuntimeException e) {
+            p.finish(e);
+            log.error("Best-price report {} failed after {} rows", reportDate, p.rowsRead, e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Queues the chunk on the pool; when too many are in flight, writes the oldest first (keeps memory bounded)
+    private void submit(ForkJoinPool pool, Deque<ForkJoinTask<ChunkResult>> inFlight, List<ProductPrices> chunk,
+                        Map<String, Integer> discounts, LocalDate reportDate, Map<String, CategoryBestValue> categories) {
+        if (chunk.isEmpty()) return;
+        ProductPrices[] products = chunk.toArray(new ProductPrices[0]);
+        inFlight.addLast(pool.submit(new ChunkTask(products, 0, products.length, discounts)));
+        while (inFlight.size() > 2 * parallelism) {
+            write(inFlight.removeFirst().join(), reportDate, categories);
+        }
+    }
+
+    private void write(ChunkResult result, LocalDate reportDate, Map<String, CategoryBestValue> categories) {
+        reportRepo.insertBestPrices(reportDate, result.rows);
+        result.categories.values().forEach(c -> mergeCategory(categories, c));
+        Progress p = progress;
+        long before = p.productsDone;
+        p.productsDone += result.rows.size();
+        if (before / LOG_EVERY_PRODUCTS != p.productsDone / LOG_EVERY_PRODUCTS) {
+            log.info("Best-price report {}: {} products written, {} rows read ({} rows/s)",
+                    reportDate, p.productsDone, p.rowsRead, Math.round(p.rowsPerSecond()));
+        }
+    }
+
+    // product id + '|' + store name -> highest discount active on the date
+    private Map<String, Integer> activeDiscounts(LocalDate date) {
+        Map<String, Integer> discounts = new HashMap<>();
+        for (Discount d : discountIndex.activeOn(date)) {
+            if (d.getProductId() == null || d.getStore() == null) continue;
+            discounts.merge(d.getProductId() + '|' + d.getStore().getName(), d.getPercentageOfDiscount(), Math::max);
+        }
+        return discounts;
+    }
+
+    private static void mergeCategory(Map<String, CategoryBestValue> categories, CategoryBestValue candidate) {
+        categories.merge(candidate.productCategory() + '|' + candidate.unit(), candidate, (a, b) ->
+                b.effectiveUnitPrice() < a.effectiveUnitPrice()
+                        || (b.effectiveUnitPrice() == a.effectiveUnitPrice() && b.productId().compareTo(a.productId()) < 0)
+                        ? b : a);
+    }
+
+    /** The current prices of one product, one entry per store. */
+    private static final class ProductPrices {
+        private final String productId;
+        private final String productName;
+        private final String productCategory;
+        private final double packageQuantity;
+        private final String packageUnit;
+        private final List<String> stores = new ArrayList<>(4);
+        private final List<Double> prices = new ArrayList<>(4);
+
+        ProductPrices(String productId, String productName, String productCategory, double packageQuantity,
+                      String packageUnit) {
+            this.productId = productId;
+            this.productName = productName;
+            this.productCategory = productCategory;
+            this.packageQuantity = packageQuantity;
+            this.packageUnit = packageUnit;
+        }
+    }
+
+    /** Report rows of a range of products (in product order) and the best value per category among them. */
+    private record ChunkResult(List<BestPrice> rows, Map<String, CategoryBestValue> categories) {
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+        private final ProductPrices[] products;
+        private final int from;
+        private final int to;
+        private final Map<String, Integer> discounts;
+
+        ChunkTask(ProductPrices[] products, int from, int to, Map<String, Integer> discounts) {
+            this.products = products;
+            this.from = from;
+            this.to = to;
+            this.discounts = discounts;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            if (to - from > SLICE) {
+                int mid = (from + to) >>> 1;
+                ChunkTask right = new ChunkTask(products, mid, to, discounts);
+                right.fork();
+                ChunkResult left = new ChunkTask(products, from, mid, discounts).compute();
+                ChunkResult rest = right.join();
+                left.rows.addAll(rest.rows);
+                rest.categories.values().forEach(c -> mergeCategory(left.categories, c));
+                return left;
+            }
+            ChunkResult result = new ChunkResult(new ArrayList<>(to - from), new HashMap<>());
+            for (int i = from; i < to; i++) {
+                BestPrice row = bestPrice(products[i]);
+                result.rows.add(row);
+                double effectiveUnitPrice = UnitPriceRanking.unitPrice(row.effectivePrice(),
+                        products[i].packageQuantity, products[i].packageUnit);
+                if (effectiveUnitPrice >= 0 && row.productCategory() != null) {
+                    mergeCategory(result.categories, new CategoryBestValue(
+                            row.productCategory().trim().toLowerCase(), row.unit(), row.productId(),
+                            row.productName(), row.effectiveStore(), effectiveUnitPrice));
+                }
+            }
+            return result;
+        }
+
+        private BestPrice bestPrice(ProductPrices p) {
+            int cheapest = 0;
+            int effective = 0;
+            int effectiveDiscount = 0;
+            double effectivePrice = Double.MAX_VALUE;
+            for (int s = 0; s < p.stores.size(); s++) {
+                double price = p.prices.get(s);
+                if (price < p.prices.get(cheapest)) cheapest = s;
+                int discount = discounts.getOrDefault(p.productId + '|' + p.stores.get(s), 0);
+                double discounted = EffectivePriceEngine.effectivePrice(price, discount);
+                if (discounted < effectivePrice) {
+                    effectivePrice = discounted;
+                    effective = s;
+                    effectiveDiscount = discount;
+                }
+            }
+            double cheapestPrice = p.prices.get(cheapest);
+            double unitPrice = UnitPriceRanking.unitPrice(cheapestPrice, p.packageQuantity, p.packageUnit);
+            return new BestPrice(p.productId, p.productName, p.productCategory, p.stores.size(),
+                    p.stores.get(cheapest), cheapestPrice,
+                    unitPrice < 0 ? null : unitPrice, UnitPriceRanking.dimension(p.packageUnit),
+                    p.stores.get(effective), effectivePrice, effectiveDiscount);
+        }
+    }
+
+    /** Mutable counters of a run; written by the job thread only. */
+    private static final class Progress {
+        private final LocalDate reportDate;
+        private final long startNanos = System.nanoTime();
+        private final Instant startedAt = Instant.now();
+        private volatile long rowsRead;
+        private volatile long productsDone;
+        private volatile long categories;
+        private volatile Instant finishedAt;
+        private volatile long finishNanos;
+        private volatile Throwable failure;
+
+        Progress(LocalDate reportDate) {
+            this.reportDate = reportDate;
+        }
+
+        void finish(Throwable failure) {
+            this.failure = failure;
+            this.finishNanos = System.nanoTime();
+            this.finishedAt = Instant.now();
+        }
+
+        long elapsedMillis() {
+            long end = finishedAt != null ? finishNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+
+        double rowsPerSecond() {
+            long millis = elapsedMillis();
+            return millis == 0 ? 0 : rowsRead * 1000.0 / millis;
+        }
+
+        ReportJobStatus status() {
+            State state = finishedAt == null ? State.RUNNING : failure == null ? State.DONE : State.FAILED;
+            return new ReportJobStatus(state, reportDate, startedAt, finishedAt, rowsRead, productsDone, categories,
+                    rowsPerSecond(), failure != null ? failure.toString() : null);
+        }
+    }
+}
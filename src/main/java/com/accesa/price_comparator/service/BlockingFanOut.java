@@ -0,0 +1,96 @@
+package com.accesa.price_comparator.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs blocking (JDBC / file) tasks concurrently on virtual threads.
+ * At most {@code price-comparator.fan-out.max-concurrency} tasks run at the same time (the other virtual
+ * threads park on the semaphore). It is capped below {@code spring.datasource.hikari.maximum-pool-size},
+ * so a fan-out always leaves connections for HTTP requests.
+ */
+@Component
+public class BlockingFanOut {
+
+    /** A task step that may throw checked exceptions (I/O, SQL). */
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R apply(T item) throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+
+    public BlockingFanOut(@Value("${price-comparator.fan-out.max-concurrency:6}") int maxConcurrency,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        this.permits = new Semaphore(Math.max(1, Math.min(maxConcurrency, poolSize - 1)));
+    }
+
+    /**
+     * Applies the task to every item concurrently and returns the results in item order.
+     * The first failure is rethrown after the remaining tasks are cancelled: unchecked exceptions as they are,
+     * {@link IOException}s as {@link UncheckedIOException}, other checked exceptions wrapped.
+     */
+    public <T, R> List<R> map(Collection<T> items, Task<? super T, ? extends R> task) {
+        if (items.size() <= 1) {
+            return items.stream().<R>map(item -> call(task, item)).toList();
+        }
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return task.apply(item);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw propagate(e.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static <T, R> R call(Task<? super T, ? extends R> task, T item) {
+        try {
+            return task.apply(item);
+        } catch (Exception e) {
+            throw propagate(e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException re) return re;
+        if (cause instanceof Error error) throw error;
+        if (cause instanceof IOException io) return new UncheckedIOException(io);
+        return new IllegalStateException(cause.getMessage(), cause);
+    }
+}
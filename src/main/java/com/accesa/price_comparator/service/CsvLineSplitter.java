@@ -0,0 +1,47 @@
+package com.accesa.price_comparator.service;
+
+/**
+ * Splits one CSV line into fields without regex and without allocating a new array per line.
+ * The field buffer is reused between calls, so an instance must not be shared between threads.
+ */
+class CsvLineSplitter {
+
+    private final char separator;
+    private String[] fields = new String[16];
+    private int count;
+
+    CsvLineSplitter(char separator) {
+        this.separator = separator;
+    }
+
+    /** Splits the line and returns the number of fields found. */
+    int split(String line) {
+        count = 0;
+        int start = 0;
+        int length = line.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == separator) {
+                if (count == fields.length) {
+                    String[] grown = new String[fields.length * 2];
+                    System.arraycopy(fields, 0, grown, 0, fields.length);
+                    fields = grown;
+                }
+                fields[count++] = line.substring(start, i).trim();
+                start = i + 1;
+            }
+        }
+        return count;
+    }
+
+    String get(int index) {
+        return fields[index];
+    }
+
+    double getDouble(int index) {
+        return Double.parseDouble(fields[index].replace(',', '.'));
+    }
+
+    int size() {
+        return count;
+    }
+}
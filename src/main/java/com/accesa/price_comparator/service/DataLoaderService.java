@@ -1,5 +1,7 @@
 package com.accesa.price_comparator.service;
 
+import com.accesa.price_comparator.dto.PriceHistory;
+import com.accesa.price_comparator.dto.PriceQuote;
 import com.accesa.price_comparator.model.Discount;
 import com.accesa.price_comparator.model.Product;
 import com.accesa.price_comparator.model.Store;
@@ -8,13 +10,19 @@ import com.accesa.price_comparator.repository.ProductRepository;
 import com.accesa.price_comparator.repository.StoreRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Console demo of the analysis scenarios, run after startup only with the {@code demo} profile
+ * ({@code --spring.profiles.active=demo}); it waits for the index warm-up first.
+ */
 @Component
+@Profile("demo")
 public class DataLoaderService implements CommandLineRunner {
 
     @Autowired
@@ -25,9 +33,12 @@ public class DataLoaderService implements CommandLineRunner {
     private DiscountRepository discountRepo;
     @Autowired
     private PriceAnalysisService analysisService;
+    @Autowired
+    private IndexWarmUp warmUp;
 
     @Override
     public void run(String... args) throws Exception {
+        warmUp.completion().join();
         System.out.println("\n\n=== Console testing with data from PostgreSQL === \n");
 
         String testProductId = "P001";  // un cod de produs valid existent în datele de test
@@ -35,14 +46,17 @@ public class DataLoaderService implements CommandLineRunner {
         System.out.println("\n--- MANUAL CONSOLE TESTING ---");
 
         // 1. Compararea prețurilor pentru un produs
-        List<Product> priceComparison = analysisService.comparePricesForProduct(testProductId);
+        List<PriceQuote> priceComparison = analysisService.comparePricesForProduct(testProductId);
         System.out.println("\nCurrent prices for product " + testProductId + ":");
-        for (Product pr : priceComparison) {
-            System.out.println("  Store " + pr.getStore().getName() + " - " + pr.getPrice() + " " + pr.getCurrency());
+        for (PriceQuote q : priceComparison) {
+            Product pr = q.product();
+            System.out.println("  Store " + pr.getStore().getName() + " - " + q.listPrice() + " " + pr.getCurrency()
+                    + (q.discountPercentage() > 0 ? " (-" + q.discountPercentage() + "% -> " + q.effectivePrice() + ")" : ""));
         }
         if (!priceComparison.isEmpty()) {
-            Product best = priceComparison.get(0);
-            System.out.println("\n  -> The cheapest is at " + best.getStore().getName() + ": " + best.getPrice() + " " + best.getCurrency());
+            PriceQuote best = priceComparison.get(0);
+            System.out.println("\n  -> The cheapest is at " + best.product().getStore().getName() + ": "
+                    + best.effectivePrice() + " " + best.product().getCurrency());
         }
 
         // 2. Produse dintr-o categorie specifică
@@ -63,11 +77,13 @@ public class DataLoaderService implements CommandLineRunner {
         }
 
         // 4. Istoricul prețurilor
-        List<Product> history = analysisService.getPriceHistory(testProductId, null);
+        PriceHistory history = analysisService.getPriceHistory(testProductId, null, null, null, 0);
         System.out.println("\nPrice history for product " + testProductId + ":");
-        history.forEach(pr ->
-                System.out.println("  " + pr.getPriceDate() + " - " + pr.getStore().getName() + ": " + pr.getPrice() + " " + pr.getCurrency())
-        );
+        if (history != null) {
+            history.stores().forEach((store, points) -> points.forEach(pt ->
+                    System.out.println("  " + pt.date() + " - " + store + ": " + pt.price() + " " + history.currency())
+            ));
+        }
 
         // 5. Cele mai mari reduceri active în prezent (top 3)
         List<Discount> topDiscounts = analysisService.getBestDiscounts(3);
@@ -98,10 +114,10 @@ public class DataLoaderService implements CommandLineRunner {
 
         // 7. Cea mai bună alternativă ca preț unitar pentru un produs dat
         String prodForSubstituteId = "P052";  // exemplu de cod produs (de ex.: ciocolată neagră 70%)
-        Product alt = analysisService.getBestValueAlternative(prodForSubstituteId);
+        PriceQuote alt = analysisService.getBestValueAlternative(prodForSubstituteId);
         if (alt != null) {
             System.out.println("\nFor product " + prodForSubstituteId + ", a cheaper alternative per unit is: "
-                    + alt.getProductName() + " (" + alt.getBrand() + ")");
+                    + alt.product().getProductName() + " (" + alt.product().getBrand() + ")");
         } else {
             System.out.println("\nProduct " + prodForSubstituteId + " already has the best unit price in its category.");
         }
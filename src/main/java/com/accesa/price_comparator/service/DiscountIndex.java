@@ -0,0 +1,335 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.repository.DiscountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Date-bucketed index over discount validity intervals.
+ * <ul>
+ *   <li>every day from yesterday up to {@code bucket-days} ahead has a bucket with its active discounts,
+ *       already ranked by {@code percentageOfDiscount}, plus a top-K list per store</li>
+ *   <li>discounts are also indexed by {@code fromDate} for "started after" queries</li>
+ * </ul>
+ * "Active on D" and "top N on D" are answered from the bucket of D without sorting; top N costs O(N).
+ * Days before the indexed horizon fall back to the repository; days after the last bucket are answered
+ * by scanning the indexed intervals, so an open-ended discount does not create a bucket per day.
+ */
+@Component
+public class DiscountIndex implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DiscountIndex.class);
+
+    private static final Comparator<Discount> RANKING =
+            Comparator.comparingInt(Discount::getPercentageOfDiscount).reversed()
+                    .thenComparing(Discount::getProductId)
+                    .thenComparing(d -> d.getStore().getName());
+
+    private final DiscountRepository discountRepo;
+    private final int topPerStore;
+    private final int bucketDays;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Discount> byKey = new HashMap<>();
+    private final NavigableMap<LocalDate, DayBucket> days = new TreeMap<>();
+    private final NavigableMap<LocalDate, List<Discount>> byStart = new TreeMap<>();
+    private LocalDate horizonStart = LocalDate.now().minusDays(1);
+    private LocalDate bucketEnd = LocalDate.now().plusDays(60);
+    private volatile long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public DiscountIndex(DiscountRepository discountRepo,
+                         @Value("${price-comparator.discounts.top-k-per-store:10}") int topPerStore,
+                         @Value("${price-comparator.discounts.bucket-days:60}") int bucketDays) {
+        this.discountRepo = discountRepo;
+        this.topPerStore = topPerStore;
+        this.bucketDays = bucketDays;
+    }
+
+    @Override
+    public String name() {
+        return "discounts";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        LocalDate horizon = today().minusDays(1);
+        List<Discount> current = discountRepo.findByToDateGreaterThanEqual(horizon);
+        lock.writeLock().lock();
+        try {
+            byKey.clear();
+            days.clear();
+            byStart.clear();
+            horizonStart = horizon;
+            bucketEnd = today().plusDays(bucketDays);
+            current.forEach(this::upsert);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Discount index built: {} discounts over {} days in {} ms", current.size(), days.size(), lastRebuildMillis);
+    }
+
+    // first among the listeners of the event: EffectivePriceEngine reads the updated buckets
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onDiscountsChanged(DiscountsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.discounts().forEach(this::upsert);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops the buckets of days that are over and adds the new last day; runs shortly after midnight. */
+    @Scheduled(cron = "${price-comparator.discounts.expiry-cron:0 5 0 * * *}")
+    public void expire() {
+        LocalDate horizon = today().minusDays(1);
+        lock.writeLock().lock();
+        try {
+            days.headMap(horizon, false).clear();
+            List<String> expired = byKey.entrySet().stream()
+                    .filter(e -> e.getValue().getToDate().isBefore(horizon))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            expired.forEach(key -> unlinkFromStart(byKey.remove(key)));
+            horizonStart = horizon;
+            LocalDate end = today().plusDays(bucketDays);
+            for (LocalDate day = bucketEnd.plusDays(1); !day.isAfter(end); day = day.plusDays(1)) {
+                for (Discount d : byKey.values()) {
+                    if (isActiveOn(d, day)) days.computeIfAbsent(day, k -> new DayBucket()).add(d, topPerStore);
+                }
+            }
+            bucketEnd = end.isAfter(bucketEnd) ? end : bucketEnd;
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Discounts active on the given date, highest percentage first. */
+    public List<Discount> activeOn(LocalDate date) {
+        return topOn(date, Integer.MAX_VALUE);
+    }
+
+    /** The {@code n} highest discounts active on the given date. */
+    public List<Discount> topOn(LocalDate date, int n) {
+        lock.readLock().lock();
+        try {
+            if (date.isBefore(horizonStart)) {
+                return fallbackTop(date, n);
+            }
+            if (date.isAfter(bucketEnd)) {
+                return record(scanIntervals(date, null, n));
+            }
+            DayBucket bucket = days.get(date);
+            return record(bucket == null ? List.of() : prefix(bucket.ranked, n));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The {@code n} highest discounts of one store on the given date. Up to the per-store top K this is a prefix
+     * of the store's list; larger {@code n} filter the day's full ranking.
+     */
+    public List<Discount> topOnForStore(LocalDate date, String storeName, int n) {
+        lock.readLock().lock();
+        try {
+            if (date.isBefore(horizonStart)) {
+                return fallbackTop(date, Integer.MAX_VALUE).stream()
+                        .filter(d -> d.getStore().getName().equalsIgnoreCase(storeName))
+                        .limit(n)
+                        .toList();
+            }
+            if (date.isAfter(bucketEnd)) {
+                return record(scanIntervals(date, storeName, n));
+            }
+            DayBucket bucket = days.get(date);
+            if (bucket == null) return record(List.of());
+            if (n > topPerStore) {
+                return record(bucket.ranked.stream()
+                        .filter(d -> d.getStore().getName().equalsIgnoreCase(storeName))
+                        .limit(n)
+                        .toList());
+            }
+            List<Discount> ranked = bucket.topByStore.get(storeName.toLowerCase());
+            return record(ranked == null ? List.of() : prefix(ranked, n));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Discounts whose {@code fromDate} is strictly after the given date. */
+    public List<Discount> startedAfter(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            if (date.isBefore(horizonStart)) {
+                misses.increment();
+                return discountRepo.findByFromDateAfter(date);
+            }
+            List<Discount> result = new ArrayList<>();
+            byStart.tailMap(date, false).values().forEach(result::addAll);
+            return record(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Incremented (under the write lock) whenever the indexed discounts change. */
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return IndexStats.of(name(), byKey.size(), hits.sum(), misses.sum(), lastRebuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // overridden by tests that move across midnight
+    LocalDate today() {
+        return LocalDate.now();
+    }
+
+    private List<Discount> fallbackTop(LocalDate date, int n) {
+        misses.increment();
+        return discountRepo.findByFromDateLessThanEqualAndToDateGreaterThanEqual(date, date).stream()
+                .sorted(RANKING)
+                .limit(n)
+                .toList();
+    }
+
+    // Caller holds the lock; days past the last bucket
+    private List<Discount> scanIntervals(LocalDate date, String storeName, int n) {
+        return byKey.values().stream()
+                .filter(d -> isActiveOn(d, date))
+                .filter(d -> storeName == null || d.getStore().getName().equalsIgnoreCase(storeName))
+                .sorted(RANKING)
+                .limit(n)
+                .toList();
+    }
+
+    private static boolean isActiveOn(Discount d, LocalDate date) {
+        return !d.getFromDate().isAfter(date) && !d.getToDate().isBefore(date);
+    }
+
+    private List<Discount> record(List<Discount> result) {
+        hits.increment();
+        return result;
+    }
+
+    // Caller holds the write lock
+    private void upsert(Discount d) {
+        if (d.getFromDate() == null || d.getToDate() == null || d.getStore() == null) return;
+        String key = d.getProductId() + '|' + d.getStore().getName() + '|' + d.getFromDate();
+        Discount previous = byKey.put(key, d);
+        if (previous != null) {
+            unlinkFromDays(previous);
+            unlinkFromStart(previous);
+        }
+        if (d.getToDate().isBefore(horizonStart)) {
+            byKey.remove(key);
+            return;
+        }
+        byStart.computeIfAbsent(d.getFromDate(), k -> new ArrayList<>()).add(d);
+        LocalDate first = d.getFromDate().isBefore(horizonStart) ? horizonStart : d.getFromDate();
+        LocalDate last = d.getToDate().isAfter(bucketEnd) ? bucketEnd : d.getToDate();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            days.computeIfAbsent(day, k -> new DayBucket()).add(d, topPerStore);
+        }
+    }
+
+    private void unlinkFromDays(Discount d) {
+        LocalDate first = d.getFromDate().isBefore(horizonStart) ? horizonStart : d.getFromDate();
+        LocalDate last = d.getToDate().isAfter(bucketEnd) ? bucketEnd : d.getToDate();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            DayBucket bucket = days.get(day);
+            if (bucket != null) {
+                bucket.remove(d, topPerStore);
+                if (bucket.ranked.isEmpty()) days.remove(day);
+            }
+        }
+    }
+
+    private void unlinkFromStart(Discount d) {
+        if (d == null) return;
+        List<Discount> sameStart = byStart.get(d.getFromDate());
+        if (sameStart != null) {
+            sameStart.remove(d);
+            if (sameStart.isEmpty()) byStart.remove(d.getFromDate());
+        }
+    }
+
+    private static List<Discount> prefix(List<Discount> ranked, int n) {
+        return List.copyOf(ranked.subList(0, Math.min(Math.max(n, 0), ranked.size())));
+    }
+
+    /** Discounts active on one day, kept ranked on insert, plus the top K per store. */
+    private static final class DayBucket {
+        private final List<Discount> ranked = new ArrayList<>();
+        private final Map<String, List<Discount>> topByStore = new HashMap<>();
+
+        void add(Discount d, int k) {
+            int pos = Collections.binarySearch(ranked, d, RANKING);
+            ranked.add(pos < 0 ? -pos - 1 : pos, d);
+            String store = d.getStore().getName().toLowerCase();
+            List<Discount> top = topByStore.computeIfAbsent(store, s -> new ArrayList<>(k));
+            int storePos = Collections.binarySearch(top, d, RANKING);
+            storePos = storePos < 0 ? -storePos - 1 : storePos;
+            if (storePos < k) {
+                top.add(storePos, d);
+                if (top.size() > k) top.remove(top.size() - 1);
+            }
+        }
+
+        void remove(Discount d, int k) {
+            if (!ranked.remove(d)) return;
+            String store = d.getStore().getName().toLowerCase();
+            List<Discount> top = topByStore.get(store);
+            if (top != null && top.remove(d)) {
+                // refill the store's top K from the full ranking
+                List<Discount> refilled = ranked.stream()
+                        .filter(x -> x.getStore().getName().equalsIgnoreCase(store))
+                        .limit(k)
+                        .toList();
+                top.clear();
+                top.addAll(refilled);
+                if (top.isEmpty()) topByStore.remove(store);
+            }
+        }
+    }
+}
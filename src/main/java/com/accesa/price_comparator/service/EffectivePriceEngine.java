@@ -0,0 +1,144 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.PriceQuote;
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.event.EffectivePricesChangedEvent;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Product;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Effective (discounted) prices: latest price snapshots joined with the discounts in effect today
+ * for the same product and store.
+ * <p>
+ * The join is precomputed once per change into a product -> store -> percentage table, taken from the
+ * day bucket of {@link DiscountIndex}. The table records the date on which it stops being valid
+ * (the next day a discount starts or ends), so it is recomputed only when a discount starts or expires
+ * (checked nightly and on access) or when discounts are imported ({@link DiscountIndex#version()}).
+ * Products whose discount changed are announced with an {@link EffectivePricesChangedEvent}.
+ */
+@Component
+public class EffectivePriceEngine {
+
+    private final DiscountIndex discountIndex;
+    private final ApplicationEventPublisher publisher;
+
+    private volatile Table table;
+
+    /**
+     * Discounts in effect from {@code date} until the day before {@code validUntil}.
+     *
+     * @param version    {@link DiscountIndex#version()} the table was computed from
+     * @param discounts  product id -> store name -> highest active discount percentage
+     */
+    private record Table(LocalDate date, LocalDate validUntil, long version, Map<String, Map<String, Integer>> discounts) {
+    }
+
+    public EffectivePriceEngine(DiscountIndex discountIndex, ApplicationEventPublisher publisher) {
+        this.discountIndex = discountIndex;
+        this.publisher = publisher;
+    }
+
+    /** Runs after {@link DiscountIndex} applied the same event (see its listener order). */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onDiscountsChanged(DiscountsChangedEvent event) {
+        current();
+    }
+
+    /** Moves the table to the new day right after midnight, if a discount starts or ends that day. */
+    @Scheduled(cron = "${price-comparator.effective-prices.refresh-cron:0 0 0 * * *}")
+    public void refreshIfStale() {
+        current();
+    }
+
+    /** The discount percentage in effect today for the product in the store (0 if none). */
+    public int discountFor(String productId, String storeName) {
+        Map<String, Integer> byStore = current().discounts.get(productId);
+        return byStore == null ? 0 : byStore.getOrDefault(storeName, 0);
+    }
+
+    /** The snapshot's list price and today's effective price. */
+    public PriceQuote quote(Product product) {
+        return quote(current(), product);
+    }
+
+    /** {@link #quote(Product)} for every snapshot, in the given order. */
+    public List<PriceQuote> quotes(Collection<Product> products) {
+        Table t = current();
+        List<PriceQuote> result = new ArrayList<>(products.size());
+        for (Product p : products) {
+            result.add(quote(t, p));
+        }
+        return result;
+    }
+
+    static double effectivePrice(double listPrice, int discountPercentage) {
+        return listPrice * (100 - discountPercentage) / 100.0;
+    }
+
+    private static PriceQuote quote(Table t, Product p) {
+        Map<String, Integer> byStore = t.discounts.get(p.getId());
+        int pct = byStore == null || p.getKey() == null ? 0 : byStore.getOrDefault(p.getKey().getStoreName(), 0);
+        return new PriceQuote(p, p.getPrice(), effectivePrice(p.getPrice(), pct), pct);
+    }
+
+    private Table current() {
+        Table t = table;
+        return t != null && !stale(t, LocalDate.now()) ? t : refresh();
+    }
+
+    private boolean stale(Table t, LocalDate today) {
+        return t.version != discountIndex.version() || today.isBefore(t.date) || !today.isBefore(t.validUntil);
+    }
+
+    private synchronized Table refresh() {
+        LocalDate today = LocalDate.now();
+        Table previous = table;
+        if (previous != null && !stale(previous, today)) return previous;
+
+        // read before the discounts: a change made meanwhile leaves the table stale, not wrong
+        long version = discountIndex.version();
+        Map<String, Map<String, Integer>> discounts = new HashMap<>();
+        LocalDate validUntil = LocalDate.MAX;
+        for (Discount d : discountIndex.activeOn(today)) {
+            discounts.computeIfAbsent(d.getProductId(), id -> new HashMap<>(4))
+                    .merge(d.getStore().getName(), d.getPercentageOfDiscount(), Math::max);
+            LocalDate end = d.getToDate().plusDays(1);
+            if (end.isBefore(validUntil)) validUntil = end;
+        }
+        for (Discount d : discountIndex.startedAfter(today)) {
+            if (d.getFromDate().isBefore(validUntil)) validUntil = d.getFromDate();
+        }
+        Table fresh = new Table(today, validUntil, version, discounts);
+        table = fresh;
+
+        Set<String> changed = new HashSet<>();
+        Map<String, Map<String, Integer>> before = previous != null ? previous.discounts : Map.of();
+        for (String id : before.keySet()) {
+            if (!Objects.equals(before.get(id), discounts.get(id))) changed.add(id);
+        }
+        for (String id : discounts.keySet()) {
+            if (!before.containsKey(id)) changed.add(id);
+        }
+        if (!changed.isEmpty()) {
+            publisher.publishEvent(new EffectivePricesChangedEvent(changed));
+        }
+        return fresh;
+    }
+}
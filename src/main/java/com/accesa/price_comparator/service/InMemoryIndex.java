@@ -0,0 +1,25 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+
+/**
+ * Common contract for the in-memory structures that serve read paths without the database.
+ */
+public interface InMemoryIndex {
+
+    /** Short name used in stats and logs. */
+    String name();
+
+    /** Rebuilds the whole structure from the database (at startup by {@link IndexWarmUp}). */
+    void rebuild();
+
+    /**
+     * Rebuilds the whole structure from a {@link PriceSnapshot} instead of the database.
+     * Returns {@code false} when the index is not (fully) covered by the snapshot and needs a {@link #rebuild()}.
+     */
+    default boolean restore(PriceSnapshot snapshot) {
+        return false;
+    }
+
+    IndexStats stats();
+}
@@ -0,0 +1,160 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.repository.PriceFeedJdbcRepository;
+import com.accesa.price_comparator.repository.StoreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Startup warm-up, run in the background once the context has started:
+ * <ol>
+ *   <li>the indexes covered by the {@link PriceSnapshotFile} (latest prices, history, search) restored from it,
+ *       when it is present, valid and still current (its data version is the database's) - they serve requests
+ *       without the database from then on</li>
+ *   <li>backfill of {@code product_latest_price} if needed (the indexes read through it)</li>
+ *   <li>the remaining {@link InMemoryIndex}es rebuilt in parallel (at most pool-size at a time, see {@link BlockingFanOut})</li>
+ *   <li>the store cache loaded</li>
+ * </ol>
+ * As a health indicator it is {@code OUT_OF_SERVICE} until the warm-up has finished; it is part of the
+ * readiness group, so the instance only receives traffic with warm indexes. Step timings are logged,
+ * shown in the health details and recorded as {@code price_comparator.warmup} timers.
+ */
+@Component
+public class IndexWarmUp implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexWarmUp.class);
+
+    private final PriceSnapshotFile snapshotFile;
+    private final PriceFeedJdbcRepository priceFeedJdbc;
+    private final LatestPriceBackfill backfill;
+    private final List<InMemoryIndex> indexes;
+    private final StoreRepository storeRepo;
+    private final BlockingFanOut fanOut;
+    private final MeterRegistry registry;
+
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile Throwable failure;
+    private volatile boolean restoredFromSnapshot;
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+
+    public IndexWarmUp(PriceSnapshotFile snapshotFile,
+                       PriceFeedJdbcRepository priceFeedJdbc,
+                       LatestPriceBackfill backfill,
+                       List<InMemoryIndex> indexes,
+                       StoreRepository storeRepo,
+                       BlockingFanOut fanOut,
+                       MeterRegistry registry) {
+        this.snapshotFile = snapshotFile;
+        this.priceFeedJdbc = priceFeedJdbc;
+        this.backfill = backfill;
+        this.indexes = indexes;
+        this.storeRepo = storeRepo;
+        this.fanOut = fanOut;
+        this.registry = registry;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        Thread thread = new Thread(this::warmUp, "index-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Completes when the warm-up has finished (exceptionally if it failed). */
+    public CompletableFuture<Void> completion() {
+        return completion;
+    }
+
+    /** Whether the indexes were restored from a current snapshot file (which then needs no rewrite). */
+    public boolean restoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health;
+        if (!completion.isDone()) {
+            health = Health.outOfService();
+        } else if (completion.isCompletedExceptionally()) {
+            health = Health.down().withException(failure);
+        } else {
+            health = Health.up();
+        }
+        synchronized (timings) {
+            return health.withDetail("millis", new LinkedHashMap<>(timings)).build();
+        }
+    }
+
+    private void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            List<InMemoryIndex> pending = indexes;
+            long readStart = System.currentTimeMillis();
+            PriceSnapshot snapshot = snapshotFile.read().filter(this::isCurrent).orElse(null);
+            record("snapshot-read", System.currentTimeMillis() - readStart);
+            if (snapshot != null) {
+                pending = fanOut.map(indexes, index -> {
+                    long restoreStart = System.currentTimeMillis();
+                    if (!index.restore(snapshot)) return index;
+                    record(index.name() + "-restore", System.currentTimeMillis() - restoreStart);
+                    return null;
+                }).stream().filter(Objects::nonNull).toList();
+                log.info("Restored {} indexes from the snapshot of {} in {} ms", indexes.size() - pending.size(),
+                        snapshot.createdAt(), System.currentTimeMillis() - start);
+                restoredFromSnapshot = true;
+            }
+            timed("latest-price-backfill", backfill::backfillIfEmpty);
+            fanOut.map(pending, index -> {
+                timed(index.name(), index::rebuild);
+                return null;
+            });
+            timed("store-cache", storeRepo::findAll);
+            record("total", System.currentTimeMillis() - start);
+            log.info("Warm-up finished in {} ms: {}", System.currentTimeMillis() - start, timings);
+            completion.complete(null);
+        } catch (Throwable e) {
+            // an Error (e.g. out of memory while rebuilding) must still finish the warm-up, or readiness and
+            // the data loader would wait for it forever
+            log.error("Warm-up failed after {} ms", System.currentTimeMillis() - start, e);
+            failure = e;
+            completion.completeExceptionally(e);
+            if (e instanceof Error error) throw error;
+        }
+    }
+
+    // a snapshot taken before the last change to the price data would leave the indexes stale
+    private boolean isCurrent(PriceSnapshot snapshot) {
+        long current = priceFeedJdbc.dataVersion();
+        if (snapshot.dataVersion() == current) return true;
+        log.info("Price snapshot of {} is stale (data version {}, database at {}), rebuilding from the database",
+                snapshot.createdAt(), snapshot.dataVersion(), current);
+        return false;
+    }
+
+    private void timed(String step, Runnable action) {
+        long start = System.currentTimeMillis();
+        action.run();
+        record(step, System.currentTimeMillis() - start);
+    }
+
+    private void record(String step, long millis) {
+        synchronized (timings) {
+            timings.put(step, millis);
+        }
+        Timer.builder("price_comparator.warmup").tag("step", step).register(registry).record(Duration.ofMillis(millis));
+    }
+}
@@ -0,0 +1,29 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.repository.LatestPriceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills {@code product_latest_price} from the product history when it is empty (first start after the
+ * table was introduced). The first step of {@link IndexWarmUp}, because the in-memory indexes read through it.
+ */
+@Component
+public class LatestPriceBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestPriceBackfill.class);
+
+    private final LatestPriceRepository latestPriceRepo;
+
+    public LatestPriceBackfill(LatestPriceRepository latestPriceRepo) {
+        this.latestPriceRepo = latestPriceRepo;
+    }
+
+    public void backfillIfEmpty() {
+        if (latestPriceRepo.count() > 0) return;
+        long start = System.currentTimeMillis();
+        int rows = latestPriceRepo.backfillFromHistory();
+        log.info("Backfilled product_latest_price with {} rows in {} ms", rows, System.currentTimeMillis() - start);
+    }
+}
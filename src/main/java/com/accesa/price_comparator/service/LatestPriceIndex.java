@@ -0,0 +1,205 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.event.LatestPriceChange;
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.LatestPrice;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.repository.LatestPriceRepository;
+import com.accesa.price_comparator.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index: product id -> store name -> newest {@link Product} snapshot.
+ * Built once at startup and kept current from {@link ProductPricesChangedEvent}s,
+ * so "current price" lookups never touch the database. Until the first build has finished,
+ * lookups are answered from the {@code product_latest_price} table (one indexed query per call).
+ * Effective changes are republished as a {@link LatestPricesChangedEvent}.
+ * A rebuild queries and swaps the map while holding the lock the change events take, so a change committed
+ * during the rebuild is either in its query or applied after the swap. Lookups do not take the lock.
+ */
+@Component
+public class LatestPriceIndex implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestPriceIndex.class);
+
+    private final ProductRepository productRepo;
+    private final LatestPriceRepository latestPriceRepo;
+    private final ApplicationEventPublisher publisher;
+
+    private volatile Map<String, Map<String, Product>> latest = new ConcurrentHashMap<>();
+    // orders rebuilds and restores against change events
+    private final ReentrantLock updates = new ReentrantLock();
+    private volatile boolean warm;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public LatestPriceIndex(ProductRepository productRepo,
+                            LatestPriceRepository latestPriceRepo,
+                            ApplicationEventPublisher publisher) {
+        this.productRepo = productRepo;
+        this.latestPriceRepo = latestPriceRepo;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String name() {
+        return "latest-price";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        updates.lock();
+        try {
+            load(productRepo.findLatestSnapshots());
+        } finally {
+            updates.unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Latest-price index built: {} products in {} ms", latest.size(), lastRebuildMillis);
+    }
+
+    @Override
+    public boolean restore(PriceSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        updates.lock();
+        try {
+            load(snapshot.latest());
+        } finally {
+            updates.unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Latest-price index restored from snapshot: {} products in {} ms", latest.size(), lastRebuildMillis);
+        return true;
+    }
+
+    /** Every current snapshot (for the {@link PriceSnapshotFile}); empty until the index is warm. */
+    public List<Product> allLatestPrices() {
+        List<Product> result = new ArrayList<>();
+        latest.values().forEach(byStore -> result.addAll(byStore.values()));
+        return result;
+    }
+
+    private void load(Collection<Product> snapshots) {
+        Map<String, Map<String, Product>> fresh = new ConcurrentHashMap<>();
+        for (Product p : snapshots) {
+            put(fresh, p);
+        }
+        latest = fresh;
+        warm = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesChanged(ProductPricesChangedEvent event) {
+        List<LatestPriceChange> changes = new ArrayList<>();
+        updates.lock();
+        try {
+            for (Product p : event.products()) {
+                LatestPriceChange change = put(latest, p);
+                if (change != null && (change.oldPrice() == null || change.oldPrice() != change.newPrice())) {
+                    changes.add(change);
+                }
+            }
+        } finally {
+            updates.unlock();
+        }
+        if (!changes.isEmpty()) {
+            publisher.publishEvent(new LatestPricesChangedEvent(changes));
+        }
+    }
+
+    /** Lowest current price of the product across stores, or {@code null} if unknown. */
+    public Double cheapestPrice(String productId) {
+        OptionalDouble min = snapshots(productId).stream().mapToDouble(Product::getPrice).min();
+        return min.isPresent() ? min.getAsDouble() : null;
+    }
+
+    /**
+     * Returns the newest snapshot of the product in every store that sells it (unsorted, mutable copy).
+     * An empty list means the product is unknown.
+     */
+    public List<Product> latestPrices(String productId) {
+        List<Product> result = new ArrayList<>(snapshots(productId));
+        if (result.isEmpty()) misses.increment(); else hits.increment();
+        return result;
+    }
+
+    /**
+     * Bulk variant of {@link #latestPrices(String)}: product id -> newest snapshot per store.
+     * Unknown products are absent from the map. Before the index is warm this is a single query.
+     */
+    public Map<String, List<Product>> latestPrices(Collection<String> productIds) {
+        Map<String, List<Product>> result = new HashMap<>();
+        if (!warm) {
+            misses.increment();
+            for (LatestPrice row : latestPriceRepo.findByKeyProductIdIn(Set.copyOf(productIds))) {
+                result.computeIfAbsent(row.getKey().getProductId(), id -> new ArrayList<>()).add(row.toProduct());
+            }
+            return result;
+        }
+        for (String productId : productIds) {
+            Map<String, Product> byStore = latest.get(productId);
+            if (byStore != null && !byStore.isEmpty()) {
+                result.put(productId, new ArrayList<>(byStore.values()));
+            }
+        }
+        if (result.isEmpty()) misses.increment(); else hits.increment();
+        return result;
+    }
+
+    @Override
+    public IndexStats stats() {
+        long size = latest.values().stream().mapToLong(Map::size).sum();
+        return IndexStats.of(name(), size, hits.sum(), misses.sum(), lastRebuildMillis);
+    }
+
+    private Collection<Product> snapshots(String productId) {
+        if (!warm) {
+            return latestPriceRepo.findByKeyProductId(productId).stream().map(LatestPrice::toProduct).toList();
+        }
+        Map<String, Product> byStore = latest.get(productId);
+        return byStore != null ? byStore.values() : List.of();
+    }
+
+    // Keeps the snapshot with the newest price date; same-day re-imports overwrite the older value.
+    // Returns the applied change, or null when the snapshot was older than the current one.
+    private static LatestPriceChange put(Map<String, Map<String, Product>> target, Product p) {
+        if (p.getKey() == null || p.getId() == null || p.getKey().getStoreName() == null || p.getPriceDate() == null) {
+            return null;
+        }
+        String store = p.getKey().getStoreName();
+        Product[] previous = new Product[1];
+        boolean[] applied = new boolean[1];
+        target.computeIfAbsent(p.getId(), id -> new ConcurrentHashMap<>())
+                .compute(store, (k, current) -> {
+                    previous[0] = current;
+                    if (current != null && p.getPriceDate().isBefore(current.getPriceDate())) {
+                        return current;
+                    }
+                    applied[0] = true;
+                    return p;
+                });
+        if (!applied[0]) return null;
+        Double oldPrice = previous[0] != null ? previous[0].getPrice() : null;
+        return new LatestPriceChange(p.getId(), store, oldPrice, p.getPrice(), p.getPriceDate());
+    }
+}
@@ -0,0 +1,168 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.PriceRollup;
+import com.accesa.price_comparator.dto.RollupPeriod;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregates (count, sum, sum of squares, min, max, last) of one daily price series per calendar period,
+ * in parallel arrays sorted by period start. Appending a newer day updates the last period in O(1);
+ * an out-of-order or replaced day recomputes only its own period from the series.
+ * Not thread-safe: owned by a {@link PriceHistoryStore} series and guarded by its lock.
+ */
+final class PeriodRollups {
+
+    private final RollupPeriod period;
+    private int[] starts = new int[2];
+    private int[] counts = new int[2];
+    private double[] sums = new double[2];
+    private double[] sumSquares = new double[2];
+    private double[] mins = new double[2];
+    private int[] minDays = new int[2];
+    private double[] maxs = new double[2];
+    private double[] lasts = new double[2];
+    private int size;
+    private int lastEnd = Integer.MIN_VALUE;
+
+    PeriodRollups(RollupPeriod period) {
+        this.period = period;
+    }
+
+    /** Adds a day that is newer than every day seen so far. */
+    void append(int day, double price) {
+        if (size > 0 && day < lastEnd) {
+            int i = size - 1;
+            counts[i]++;
+            sums[i] += price;
+            sumSquares[i] += price * price;
+            if (price < mins[i]) {
+                mins[i] = price;
+                minDays[i] = day;
+            }
+            maxs[i] = Math.max(maxs[i], price);
+            lasts[i] = price;
+            return;
+        }
+        int start = period.start(day);
+        ensureCapacity();
+        starts[size] = start;
+        reset(size++, day, price);
+        lastEnd = period.next(start);
+    }
+
+    /** Recomputes the period containing {@code day} from the (date-sorted) series. */
+    void refresh(int day, int[] days, double[] prices, int seriesSize) {
+        int start = period.start(day);
+        int end = period.next(start);
+        int lo = lowerBound(days, seriesSize, start);
+        int hi = lowerBound(days, seriesSize, end);
+        int pos = Arrays.binarySearch(starts, 0, size, start);
+        if (pos < 0) {
+            pos = -pos - 1;
+            ensureCapacity();
+            shift(pos);
+            starts[pos] = start;
+            if (pos == size - 1) lastEnd = end;
+        }
+        reset(pos, days[lo], prices[lo]);
+        for (int j = lo + 1; j < hi; j++) {
+            counts[pos]++;
+            sums[pos] += prices[j];
+            sumSquares[pos] += prices[j] * prices[j];
+            if (prices[j] < mins[pos]) {
+                mins[pos] = prices[j];
+                minDays[pos] = days[j];
+            }
+            maxs[pos] = Math.max(maxs[pos], prices[j]);
+            lasts[pos] = prices[j];
+        }
+    }
+
+    /** Rollups of the periods that overlap {@code [fromDay, toDay]}. */
+    List<PriceRollup> slice(int fromDay, int toDay) {
+        int lo = fromDay == Integer.MIN_VALUE ? 0 : lowerBound(starts, size, period.start(fromDay));
+        int hi = toDay == Integer.MAX_VALUE ? size : lowerBound(starts, size, toDay + 1);
+        List<PriceRollup> result = new ArrayList<>(Math.max(0, hi - lo));
+        for (int i = lo; i < hi; i++) {
+            double average = sums[i] / counts[i];
+            double variance = Math.max(0, sumSquares[i] / counts[i] - average * average);
+            result.add(new PriceRollup(LocalDate.ofEpochDay(starts[i]), counts[i], mins[i], maxs[i], average,
+                    Math.sqrt(variance), lasts[i]));
+        }
+        return result;
+    }
+
+    /** Index of the first period starting on or after {@code day}. */
+    int firstStartingFrom(int day) {
+        return lowerBound(starts, size, day);
+    }
+
+    int size() {
+        return size;
+    }
+
+    double min(int i) {
+        return mins[i];
+    }
+
+    int minDay(int i) {
+        return minDays[i];
+    }
+
+    void trim() {
+        starts = Arrays.copyOf(starts, size);
+        counts = Arrays.copyOf(counts, size);
+        sums = Arrays.copyOf(sums, size);
+        sumSquares = Arrays.copyOf(sumSquares, size);
+        mins = Arrays.copyOf(mins, size);
+        minDays = Arrays.copyOf(minDays, size);
+        maxs = Arrays.copyOf(maxs, size);
+        lasts = Arrays.copyOf(lasts, size);
+    }
+
+    private void reset(int i, int day, double price) {
+        counts[i] = 1;
+        sums[i] = price;
+        sumSquares[i] = price * price;
+        mins[i] = price;
+        minDays[i] = day;
+        maxs[i] = price;
+        lasts[i] = price;
+    }
+
+    private void shift(int pos) {
+        int tail = size - pos;
+        System.arraycopy(starts, pos, starts, pos + 1, tail);
+        System.arraycopy(counts, pos, counts, pos + 1, tail);
+        System.arraycopy(sums, pos, sums, pos + 1, tail);
+        System.arraycopy(sumSquares, pos, sumSquares, pos + 1, tail);
+        System.arraycopy(mins, pos, mins, pos + 1, tail);
+        System.arraycopy(minDays, pos, minDays, pos + 1, tail);
+        System.arraycopy(maxs, pos, maxs, pos + 1, tail);
+        System.arraycopy(lasts, pos, lasts, pos + 1, tail);
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == starts.length) {
+            int capacity = Math.max(2, size + (size >> 1) + 1);
+            starts = Arrays.copyOf(starts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            sumSquares = Arrays.copyOf(sumSquares, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            minDays = Arrays.copyOf(minDays, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            lasts = Arrays.copyOf(lasts, capacity);
+        }
+    }
+
+    private static int lowerBound(int[] values, int size, int value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+}
@@ -0,0 +1,199 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.event.LatestPriceChange;
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.model.PriceAlert;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.repository.PriceAlertJdbcRepository;
+import com.accesa.price_comparator.repository.PriceAlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluates untriggered {@link PriceAlert}s when prices change.
+ * Alerts are kept per product code in a map sorted by {@code targetPrice}, so a new price p in a store
+ * matches every alert with target >= p (for any store or that store) through one range lookup.
+ * Matches of a whole ingest batch are handed to the {@link AlertWriteBehind} queue in one call.
+ * A rebuild first triggers, with one statement, the alerts the current prices already satisfy
+ * (prices may have changed while the engine was not running).
+ */
+@Component
+public class PriceAlertEngine implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceAlertEngine.class);
+
+    private final PriceAlertRepository alertRepo;
+    private final PriceAlertJdbcRepository alertJdbc;
+    private final AlertWriteBehind writeBehind;
+    private final LatestPriceIndex latestPriceIndex;
+
+    // product code -> target price -> alerts with that target
+    private final Map<String, NavigableMap<Double, List<PriceAlert>>> pending = new HashMap<>();
+    private int pendingCount;
+    // alerts registered while a rebuild is loading (null otherwise), added again when it swaps the map
+    private List<PriceAlert> registeredDuringRebuild;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public PriceAlertEngine(PriceAlertRepository alertRepo, PriceAlertJdbcRepository alertJdbc,
+                            AlertWriteBehind writeBehind, LatestPriceIndex latestPriceIndex) {
+        this.alertRepo = alertRepo;
+        this.alertJdbc = alertJdbc;
+        this.writeBehind = writeBehind;
+        this.latestPriceIndex = latestPriceIndex;
+    }
+
+    @Override
+    public String name() {
+        return "price-alerts";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            registeredDuringRebuild = new ArrayList<>();
+        }
+        List<PriceAlert> active;
+        int caughtUp;
+        try {
+            caughtUp = alertJdbc.triggerSatisfied().size();
+            active = writeBehind.withUnwritten(alertRepo.findByTriggeredFalse());
+            synchronized (this) {
+                pending.clear();
+                pendingCount = 0;
+                // alerts registered after the load are kept in their current state, not in the loaded one
+                Set<Long> registered = new HashSet<>();
+                for (PriceAlert alert : registeredDuringRebuild) {
+                    registered.add(alert.getId());
+                    if (!alert.isTriggered()) add(alert);
+                }
+                active.stream().filter(a -> !registered.contains(a.getId())).forEach(this::add);
+            }
+        } finally {
+            synchronized (this) {
+                registeredDuringRebuild = null;
+            }
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Price alert engine loaded {} active alerts ({} already satisfied and triggered) in {} ms",
+                active.size(), caughtUp, lastRebuildMillis);
+    }
+
+    @EventListener
+    public void onLatestPricesChanged(LatestPricesChangedEvent event) {
+        List<PriceAlert> matched = new ArrayList<>();
+        synchronized (this) {
+            for (LatestPriceChange change : event.changes()) {
+                matched.addAll(takeMatching(change.productId(), change.storeName(), change.newPrice()));
+            }
+        }
+        if (matched.isEmpty()) {
+            misses.increment();
+            return;
+        }
+        hits.increment();
+        persistTriggered(matched);
+    }
+
+    /**
+     * Starts tracking a newly created alert. If the current price (cheapest across stores, or in the
+     * alert's store) already satisfies it, the alert is triggered immediately instead.
+     */
+    public PriceAlert register(PriceAlert alert) {
+        if (alert.isTriggered()) return alert;
+        // checked and added under the lock of onLatestPricesChanged: the index moves before it publishes the change,
+        // so a change the check did not see is matched against the added alert
+        synchronized (this) {
+            Double current = currentPrice(alert);
+            if (current == null || current > alert.getTargetPrice()) {
+                add(alert);
+                if (registeredDuringRebuild != null) registeredDuringRebuild.add(alert);
+                return alert;
+            }
+        }
+        persistTriggered(List.of(alert));
+        return alert;
+    }
+
+    /** Stops tracking an alert (e.g. triggered manually). */
+    public synchronized void unregister(PriceAlert alert) {
+        NavigableMap<Double, List<PriceAlert>> byTarget = pending.get(alert.getProductId());
+        if (byTarget == null) return;
+        List<PriceAlert> sameTarget = byTarget.get(alert.getTargetPrice());
+        if (sameTarget != null && sameTarget.removeIf(a -> a.getId().equals(alert.getId()))) {
+            pendingCount--;
+            if (sameTarget.isEmpty()) byTarget.remove(alert.getTargetPrice());
+            if (byTarget.isEmpty()) pending.remove(alert.getProductId());
+        }
+    }
+
+    @Override
+    public synchronized IndexStats stats() {
+        return IndexStats.of(name(), pendingCount, hits.sum(), misses.sum(), lastRebuildMillis);
+    }
+
+    private Double currentPrice(PriceAlert alert) {
+        if (alert.getStoreName() == null) {
+            return latestPriceIndex.cheapestPrice(alert.getProductId());
+        }
+        return latestPriceIndex.latestPrices(alert.getProductId()).stream()
+                .filter(p -> alert.getStoreName().equalsIgnoreCase(p.getKey().getStoreName()))
+                .map(Product::getPrice)
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Caller holds the lock
+    private void add(PriceAlert alert) {
+        if (alert.getProductId() == null) return;
+        pending.computeIfAbsent(alert.getProductId(), k -> new TreeMap<>())
+                .computeIfAbsent(alert.getTargetPrice(), k -> new ArrayList<>())
+                .add(alert);
+        pendingCount++;
+    }
+
+    // Caller holds the lock; removes and returns every alert for any store or storeName with targetPrice >= price
+    private List<PriceAlert> takeMatching(String productId, String storeName, double price) {
+        NavigableMap<Double, List<PriceAlert>> byTarget = pending.get(productId);
+        if (byTarget == null) return List.of();
+        NavigableMap<Double, List<PriceAlert>> satisfied = byTarget.tailMap(price, true);
+        if (satisfied.isEmpty()) return List.of();
+        List<PriceAlert> matched = new ArrayList<>();
+        Iterator<List<PriceAlert>> lists = satisfied.values().iterator();
+        while (lists.hasNext()) {
+            List<PriceAlert> sameTarget = lists.next();
+            sameTarget.removeIf(a -> {
+                boolean matches = a.getStoreName() == null || a.getStoreName().equalsIgnoreCase(storeName);
+                if (matches) matched.add(a);
+                return matches;
+            });
+            if (sameTarget.isEmpty()) lists.remove();
+        }
+        pendingCount -= matched.size();
+        if (byTarget.isEmpty()) pending.remove(productId);
+        return matched;
+    }
+
+    private void persistTriggered(List<PriceAlert> alerts) {
+        alerts.forEach(a -> a.setTriggered(true));
+        writeBehind.enqueue(alerts);
+        log.info("Triggered {} price alerts", alerts.size());
+    }
+}
@@ -1,36 +1,71 @@
 package com.accesa.price_comparator.service;
 
 import com.accesa.price_comparator.model.PriceAlert;
+import com.accesa.price_comparator.model.Store;
 import com.accesa.price_comparator.repository.PriceAlertRepository;
+import com.accesa.price_comparator.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Encapsulates all alert-related business logic.
+ * Writes go through the {@link AlertWriteBehind} queue; reads see the queued changes.
  */
 @Service
 @RequiredArgsConstructor
 public class PriceAlertService {
 
     private final PriceAlertRepository alertRepo;
+    private final PriceAlertEngine alertEngine;
+    private final AlertWriteBehind writeBehind;
+    private final StoreRepository storeRepo;
 
-    public PriceAlert createAlert(Long productId, double targetPrice) {
+    /**
+     * @param storeName only prices of this store trigger the alert; {@code null} = any store.
+     *                  Matched case-insensitively and stored under the store's own name (400 if there is none).
+     */
+    public PriceAlert createAlert(String productId, String storeName, double targetPrice) {
         PriceAlert alert = PriceAlert.builder()
+                .id(writeBehind.newId())
                 .productId(productId)
+                .storeName(canonicalStoreName(storeName))
                 .targetPrice(targetPrice)
                 .triggered(false)
                 .build();
-        return alertRepo.save(alert);
+        // the engine triggers it right away if the current price is already low enough
+        alertEngine.register(alert);
+        writeBehind.enqueue(alert);
+        return alert;
     }
 
     public List<PriceAlert> getActiveAlerts() {
-        return alertRepo.findByTriggeredFalse();
+        return writeBehind.withUnwritten(alertRepo.findByTriggeredFalse());
+    }
+
+    public Optional<PriceAlert> findAlert(Long id) {
+        return writeBehind.find(id).or(() -> alertRepo.findById(id));
     }
 
     public PriceAlert markTriggered(PriceAlert alert) {
         alert.setTriggered(true);
-        return alertRepo.save(alert);
+        alertEngine.unregister(alert);
+        writeBehind.enqueue(alert);
+        return alert;
+    }
+
+    // checked before the alert is queued: an unknown store would only fail at the write, in the background
+    private String canonicalStoreName(String storeName) {
+        if (storeName == null || storeName.isBlank()) return null;
+        String name = storeName.trim();
+        return storeRepo.findAll().stream()
+                .map(Store::getName)
+                .filter(name::equalsIgnoreCase)
+                .findFirst()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown store: " + name));
     }
 }
@@ -1,199 +1,229 @@
 package com.accesa.price_comparator.service;
 
+import com.accesa.price_comparator.config.CacheConfig;
+import com.accesa.price_comparator.dto.BasketPlan;
+import com.accesa.price_comparator.dto.CursorPage;
+import com.accesa.price_comparator.dto.LowestPrice;
+import com.accesa.price_comparator.dto.PriceHistory;
+import com.accesa.price_comparator.dto.PriceQuote;
+import com.accesa.price_comparator.dto.PriceStatistics;
+import com.accesa.price_comparator.dto.RollupPeriod;
 import com.accesa.price_comparator.model.Discount;
 import com.accesa.price_comparator.model.Product;
 import com.accesa.price_comparator.model.Store;
-import com.accesa.price_comparator.repository.DiscountRepository;
-import com.accesa.price_comparator.repository.ProductRepository;
-import com.accesa.price_comparator.repository.StoreRepository;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class PriceAnalysisService {
 
-    private final ProductRepository productRepo;
-    private final StoreRepository storeRepo;
-    private final DiscountRepository discountRepo;
+    private static final Comparator<PriceQuote> CHEAPEST_FIRST =
+            Comparator.comparingDouble(PriceQuote::effectivePrice).thenComparingDouble(PriceQuote::listPrice);
+
+    private final LatestPriceIndex latestPriceIndex;
+    private final ProductSearchIndex searchIndex;
+    private final BasketOptimizer basketOptimizer;
+    private final DiscountIndex discountIndex;
+    private final UnitPriceRanking unitPriceRanking;
+    private final PriceHistoryStore historyStore;
+    private final EffectivePriceEngine effectivePrices;
     //TODO: injection via constructor
-    public PriceAnalysisService(ProductRepository productRepo,
-                                StoreRepository storeRepo,
-                                DiscountRepository discountRepo) {
-        this.productRepo = productRepo;
-        this.storeRepo = storeRepo;
-        this.discountRepo = discountRepo;
+    public PriceAnalysisService(LatestPriceIndex latestPriceIndex,
+                                ProductSearchIndex searchIndex,
+                                BasketOptimizer basketOptimizer,
+                                DiscountIndex discountIndex,
+                                UnitPriceRanking unitPriceRanking,
+                                PriceHistoryStore historyStore,
+                                EffectivePriceEngine effectivePrices) {
+        this.latestPriceIndex = latestPriceIndex;
+        this.searchIndex = searchIndex;
+        this.basketOptimizer = basketOptimizer;
+        this.discountIndex = discountIndex;
+        this.unitPriceRanking = unitPriceRanking;
+        this.historyStore = historyStore;
+        this.effectivePrices = effectivePrices;
     }
 
     /**
      * Compares the current prices of a product (identified by its code) across all stores
-     * and returns a list of Product records (one per store), sorted in ascending order by price.
+     * and returns one quote per store (list price and today's discounted price), cheapest effective price first.
+     * The (read-only) result is cached until the next ingest changes one of the product's prices
+     * or one of its discounts starts, ends or changes.
      */
-    public List<Product> comparePricesForProduct(String productId) {
-        // Check if there's at least one product with this ID
-        List<Product> allEntries = productRepo.findByKeyId(productId);
-        if (allEntries.isEmpty()) {
-            return Collections.emptyList();
-        }
-        List<Product> latestPrices = new ArrayList<>();
-        // For each store, get the most recent known price of the product
-        List<Store> stores = storeRepo.findAll();
-        for (Store store : stores) {
-            List<Product> pricesForProductInStore = productRepo.findByKeyIdAndKeyStoreName(productId, store.getName());
-            if (!pricesForProductInStore.isEmpty()) {
-                // Sort by date and get the most recent entry (last one)
-                pricesForProductInStore.sort(Comparator.comparing(Product::getPriceDate));
-                Product lastPrice = pricesForProductInStore.get(pricesForProductInStore.size() - 1);
-                latestPrices.add(lastPrice);
-            }
-        }
-
-        List<Store> allStoresNotNull = stores.stream()
-                .filter(store -> store.getName() != null)
-                .toList();
+    @Cacheable(CacheConfig.PRICE_COMPARISON)
+    public List<PriceQuote> comparePricesForProduct(String productId) {
+        // The newest snapshot per store is served by the in-memory index (no database round trips)
+        List<PriceQuote> quotes = effectivePrices.quotes(latestPriceIndex.latestPrices(productId));
 
         // Sort the price list from lowest to highest
-        latestPrices.sort(Comparator.comparingDouble(Product::getPrice));
-        return latestPrices;
+        quotes.sort(CHEAPEST_FIRST);
+        return Collections.unmodifiableList(quotes);
+    }
+
+    /**
+     * Batch variant of {@link #comparePricesForProduct(String)}: for every requested product code (in request order)
+     * its current prices per store, cheapest first. Unknown codes map to an empty list.
+     * The whole batch is one index lookup (one IN query on product_latest_price while the index is still loading).
+     */
+    public Map<String, List<PriceQuote>> comparePricesForProducts(List<String> productIds) {
+        Map<String, List<Product>> latestPrices = latestPriceIndex.latestPrices(productIds);
+        Map<String, List<PriceQuote>> result = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            List<PriceQuote> quotes = effectivePrices.quotes(latestPrices.getOrDefault(productId, List.of()));
+            quotes.sort(CHEAPEST_FIRST);
+            result.put(productId, Collections.unmodifiableList(quotes));
+        }
+        return result;
     }
 
     /**
      * Returns products from a given category, sorted alphabetically by name.
-     * (May include multiple entries per product if it exists in multiple stores.)
+     * One entry per product (its newest snapshot), served by the in-memory search index.
      */
     public List<Product> getProductsByCategory(String category) {
-        return productRepo.findAll().stream()
-                .filter(p -> p.getProductCategory().equalsIgnoreCase(category))
-                .sorted(Comparator.comparing(Product::getProductName))
-                .collect(Collectors.toList());
+        return getProductsByCategory(category, 0, Integer.MAX_VALUE);
+    }
+
+    /** Paged variant of {@link #getProductsByCategory(String)}. */
+    public List<Product> getProductsByCategory(String category, int page, int size) {
+        return searchIndex.byCategory(category, page, size);
     }
 
     /** Searches for products whose name contains the given string (case insensitive). */
     public List<Product> searchProductsByName(String namePart) {
-        String lower = namePart.toLowerCase();
-        return productRepo.findAll().stream()
-                .filter(p -> p.getProductName().toLowerCase().contains(lower))
-                .collect(Collectors.toList());
+        return searchProductsByName(namePart, 0, Integer.MAX_VALUE);
+    }
+
+    /** Paged variant of {@link #searchProductsByName(String)}, sorted by name. */
+    public List<Product> searchProductsByName(String namePart, int page, int size) {
+        return searchIndex.byNameContaining(namePart, page, size);
+    }
+
+    /** Products of a given brand (case insensitive), sorted by name. */
+    public List<Product> getProductsByBrand(String brand, int page, int size) {
+        return searchIndex.byBrand(brand, page, size);
+    }
+
+    /** All known products (one entry per product), sorted by name. */
+    public List<Product> listProducts(int page, int size) {
+        return searchIndex.all(page, size);
+    }
+
+    /** Keyset variant of {@link #listProducts(int, int)}: the products after {@code cursor} ({@code null} = first page). */
+    public CursorPage<Product> listProducts(String cursor, int size) {
+        return searchIndex.all(cursor, size);
+    }
+
+    /** Keyset variant of {@link #getProductsByCategory(String, int, int)}. */
+    public CursorPage<Product> getProductsByCategory(String category, String cursor, int size) {
+        return searchIndex.byCategory(category, cursor, size);
+    }
+
+    /** Keyset variant of {@link #searchProductsByName(String, int, int)}. */
+    public CursorPage<Product> searchProductsByName(String namePart, String cursor, int size) {
+        return searchIndex.byNameContaining(namePart, cursor, size);
+    }
+
+    /** Keyset variant of {@link #getProductsByBrand(String, int, int)}. */
+    public CursorPage<Product> getProductsByBrand(String brand, String cursor, int size) {
+        return searchIndex.byBrand(brand, cursor, size);
     }
 
-    /** Checks if the current minimum price of a certain product is below a specified threshold. */
+    /** Checks if the current minimum (effective, i.e. discounted) price of a certain product is below a specified threshold. */
     public boolean checkPriceBelowTarget(String productId, double targetPrice) {
-        List<Product> comp = comparePricesForProduct(productId);
+        List<PriceQuote> comp = comparePricesForProduct(productId);
         if (comp.isEmpty()) return false;
-        Product cheapest = comp.get(0);
-        return cheapest.getPrice() <= targetPrice;
+        PriceQuote cheapest = comp.get(0);
+        return cheapest.effectivePrice() <= targetPrice;
     }
 
     /**
-     * Returns the price history for a given product (optionally filtered by store).
-     * The list is sorted in ascending order by date.
+     * Returns the price history for a given product (optionally filtered by store and date range),
+     * one date-ordered series per store. With {@code maxPoints > 0} each series is downsampled.
+     * Returns null if the product is unknown.
      */
-    public List<Product> getPriceHistory(String productId, String storeName) {
-        List<Product> entries;
-        // Check if the product exists
-        List<Product> allEntries = productRepo.findByKeyId(productId);
-        if (allEntries.isEmpty()) return Collections.emptyList();
-        if (storeName == null || storeName.isEmpty()) {
-            // All entries (from all stores) for the given product
-            entries = new ArrayList<>(allEntries);
-        } else {
-            // Filter entries for the specified store
-            Optional<Store> storeOpt = storeRepo.findById(storeName);
-            if (storeOpt.isEmpty()) return Collections.emptyList();
-            entries = productRepo.findByKeyIdAndKeyStoreName(productId, storeName);
-        }
-        // Sort by date (ascending)
-        entries.sort(Comparator.comparing(Product::getPriceDate));
-        return entries;
+    public PriceHistory getPriceHistory(String productId, String storeName, LocalDate from, LocalDate to, int maxPoints) {
+        return historyStore.history(productId, storeName, from, to, maxPoints);
+    }
+
+    /**
+     * Last date of a history page starting at {@code from} with at most {@code size} points per store,
+     * or null if the rest of the range fits into one page.
+     */
+    public LocalDate getPriceHistoryPageEnd(String productId, String storeName, LocalDate from, LocalDate to, int size) {
+        return historyStore.pageEnd(productId, storeName, from, to, size);
+    }
+
+    /**
+     * Min / max / average / volatility of a product's prices per store and day, week or month,
+     * for the periods overlapping {@code [from, to]}. Served from precomputed rollups; null if the product is unknown.
+     */
+    public PriceStatistics getPriceStatistics(String productId, String storeName, RollupPeriod period,
+                                              LocalDate from, LocalDate to) {
+        return historyStore.rollups(productId, storeName, period, from, to);
+    }
+
+    /**
+     * Lowest price of a product in the last {@code days} days (all stores or one), and whether the
+     * current price matches it. Returns null if the product is unknown or had no price in that window.
+     */
+    public LowestPrice getLowestPrice(String productId, String storeName, int days) {
+        return historyStore.lowestSince(productId, storeName, LocalDate.now().minusDays(days));
     }
 
     /**
      * Finds the most cost-effective alternative (a similar product from the same category)
-     * based on unit price. Returns the alternative product if one has a lower unit price, otherwise returns null.
+     * based on unit price. Returns the alternative (with today's effective price) if one has a lower unit price,
+     * otherwise returns null.
+     * Unit prices are normalized (g -> kg, ml -> l, pieces) and only products measured in the same unit are compared.
      */
-    public Product getBestValueAlternative(String productId) {
-        List<Product> allEntries = productRepo.findByKeyId(productId);
-        if (allEntries.isEmpty()) return null;
-        Product reference = allEntries.get(0);  // use the first entry just to get reference details
-        String category = reference.getProductCategory();
-        String productName = reference.getProductName();
-        // Collect all candidates in the same category (including the original product)
-        List<Product> candidates = productRepo.findAll().stream()
-                .filter(p -> p.getProductCategory().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
-        if (candidates.isEmpty()) return null;
-        // Calculate the unit price of the original product (lowest current price divided by quantity)
-        double originalUnitPrice = calcMinUnitPrice(productId, reference);
-        Product bestProduct = reference;
-        double bestUnitPrice = originalUnitPrice;
-        // Group candidates by product code to avoid duplicate evaluations
-        Map<String, List<Product>> candidatesByCode = candidates.stream()
-                .collect(Collectors.groupingBy(p -> p.getId()));
-        for (String code : candidatesByCode.keySet()) {
-            if (code.equalsIgnoreCase(productId)) continue; // skip the original product
-            Product sample = candidatesByCode.get(code).get(0);  // get one instance for details
-            double unitPrice = calcMinUnitPrice(code, sample);
-            if (unitPrice > 0 && unitPrice < bestUnitPrice) {
-                bestUnitPrice = unitPrice;
-                bestProduct = sample;
-            }
-        }
-        return (bestProduct == reference) ? null : bestProduct;
-    }
-
-    // Helper method: calculates the lowest unit price for the given product (minimum price / quantity)
-    private double calcMinUnitPrice(String productCode, Product productInfo) {
-        List<Product> comp = comparePricesForProduct(productCode);
-        if (comp.isEmpty()) return -1;
-        Product cheapest = comp.get(0);
-        double qty = productInfo.getPackageQuantity();
-        String unit = productInfo.getPackageUnit();
-        // Normalize quantity to base units (e.g., grams -> kg, ml -> l)
-        if (unit.equalsIgnoreCase("g")) {
-            qty = qty / 1000.0;
-        } else if (unit.equalsIgnoreCase("ml")) {
-            qty = qty / 1000.0;
-        }
-        if (qty <= 0) return -1;
-        return cheapest.getPrice() / qty;
+    public PriceQuote getBestValueAlternative(String productId) {
+        Product alternative = unitPriceRanking.bestAlternative(productId);
+        return alternative != null ? effectivePrices.quote(alternative) : null;
+    }
+
+    /** Up to {@code top} alternatives with a lower unit price than the given product, best value first. */
+    public List<PriceQuote> getBestValueAlternatives(String productId, int top) {
+        return effectivePrices.quotes(unitPriceRanking.alternatives(productId, top));
     }
 
     /**
      * Returns an optimized allocation of a list of products (by code) across stores,
      * such that the total cost is minimized.
      * The result is a map: Store -> List of products bought from that store.
+     * (No store limit and no visit cost; see {@link #optimizeBasket(List, int, double)} for the constrained version.)
      */
     public Map<Store, List<Product>> optimizeBasket(List<String> productIds) {
+        BasketPlan plan = optimizeBasket(productIds, 0, 0);
         Map<Store, List<Product>> allocation = new HashMap<>();
-        for (String pid : productIds) {
-            List<Product> comp = comparePricesForProduct(pid);
-            if (comp.isEmpty()) continue;
-            Product cheapest = comp.get(0);
-            Store store = cheapest.getStore();
-            allocation.computeIfAbsent(store, k -> new ArrayList<>());
-            allocation.get(store).add(cheapest);
-        }
+        plan.allocation().values().forEach(lines -> lines.forEach(line ->
+                allocation.computeIfAbsent(line.product().getStore(), k -> new ArrayList<>()).add(line.product())));
         return allocation;
     }
 
+    /**
+     * Cost-minimizing basket allocation visiting at most {@code maxStores} stores (0 = no limit),
+     * with a fixed {@code storeVisitCost} per visited store and today's discounts applied.
+     */
+    public BasketPlan optimizeBasket(List<String> productIds, int maxStores, double storeVisitCost) {
+        return basketOptimizer.optimize(productIds, maxStores, storeVisitCost);
+    }
+
     /**
      * Returnează cele mai mari N reduceri active la data curentă,
      * ordonate descrescător după procentul de reducere.
+     * (Servit din indexul de reduceri: lista zilei este deja ordonată, costul este O(N).)
      */
     public List<Discount> getBestDiscounts(int top) {
-        LocalDate today = LocalDate.now();
-
-        // toate reducerile valide astăzi
-        List<Discount> active = discountRepo
-                .findByFromDateLessThanEqualAndToDateGreaterThanEqual(today, today);
+        return discountIndex.topOn(LocalDate.now(), top);
+    }
 
-        // ordonăm descrescător și limităm la "top"
-        return active.stream()
-                .sorted(Comparator.comparingInt(Discount::getPercentageOfDiscount).reversed())
-                .limit(top)
-                .collect(Collectors.toList());
+    /** Cele mai mari N reduceri active astăzi într-un singur magazin. */
+    public List<Discount> getBestDiscounts(int top, String storeName) {
+        return discountIndex.topOnForStore(LocalDate.now(), storeName, top);
     }
 
     /**
@@ -204,7 +234,7 @@ public class PriceAnalysisService {
         LocalDate yesterday = LocalDate.now().minusDays(1);
 
         // toate reducerile care AU ÎNCEPUT după ieri (=> în ultimele 24 h)
-        return discountRepo.findByFromDateAfter(yesterday);
+        return discountIndex.startedAfter(yesterday);
     }
 
 }
@@ -0,0 +1,219 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.PriceChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams the {@link PriceChangeFeed} to server-sent-event subscribers.
+ * A single dispatcher thread reads the feed once per round and renders each entry once; the pre-rendered
+ * events are handed to a bounded queue per subscriber, which its own virtual thread writes to the client.
+ * A slow client therefore only delays itself; one whose queue is full is closed and resumes from its
+ * {@code Last-Event-ID} (the event id is the feed sequence). Subscribers never query the database.
+ * A client that fell out of the buffer gets a {@code reset} event and continues with the oldest entry kept.
+ */
+@Component
+public class PriceChangeBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceChangeBroadcaster.class);
+
+    /** Entries sent to one subscriber per round, so a resuming client does not hold up the others. */
+    private static final int MAX_BATCH = 500;
+
+    private final PriceChangeFeed feed;
+    private final ObjectMapper objectMapper;
+    private final long heartbeatMillis;
+    private final long emitterTimeoutMillis;
+    private final int queueCapacity;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread dispatcher = new Thread(this::dispatchLoop, "price-change-dispatcher");
+    private volatile boolean running = true;
+
+    public PriceChangeBroadcaster(PriceChangeFeed feed,
+                                  ObjectMapper objectMapper,
+                                  @Value("${price-comparator.feed.heartbeat-millis:15000}") long heartbeatMillis,
+                                  @Value("${price-comparator.feed.emitter-timeout-millis:1800000}") long emitterTimeoutMillis,
+                                  @Value("${price-comparator.feed.subscriber-queue:2000}") int queueCapacity) {
+        this.feed = feed;
+        this.objectMapper = objectMapper;
+        this.heartbeatMillis = heartbeatMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.queueCapacity = Math.max(queueCapacity, MAX_BATCH + 1);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        subscribers.forEach(Subscriber::close);
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    /**
+     * Registers a subscriber that receives the entries after {@code lastSequence}
+     * ({@code null} = only entries appended from now on).
+     */
+    public SseEmitter subscribe(Long lastSequence) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, lastSequence != null ? lastSequence : feed.lastSequence(),
+                queueCapacity);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        subscriber.sender = senders.submit(() -> send(subscriber));
+        subscribers.add(subscriber);
+        feed.wakeUp();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatchLoop() {
+        long dispatched = feed.lastSequence();
+        long lastHeartbeat = System.currentTimeMillis();
+        boolean behind = false;
+        while (running) {
+            try {
+                if (!behind) {
+                    feed.await(dispatched, heartbeatMillis);
+                }
+                dispatched = feed.lastSequence();
+                boolean heartbeat = System.currentTimeMillis() - lastHeartbeat >= heartbeatMillis;
+                if (heartbeat) lastHeartbeat = System.currentTimeMillis();
+                behind = dispatchRound(dispatched, heartbeat);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Price change dispatch failed", e);
+            }
+        }
+    }
+
+    // Returns true when some subscriber is still behind after this round (more than MAX_BATCH entries)
+    private boolean dispatchRound(long last, boolean heartbeat) {
+        // subscribers mostly share a cursor: read and render once per cursor and once per entry
+        Map<Long, Batch> byCursor = new HashMap<>();
+        Map<Long, Set<DataWithMediaType>> rendered = new HashMap<>();
+        Set<DataWithMediaType> ping = heartbeat ? SseEmitter.event().comment("ping").build() : null;
+        boolean behind = false;
+        for (Subscriber s : subscribers) {
+            if (s.cursor != last) {
+                Batch batch = byCursor.computeIfAbsent(s.cursor, c -> render(feed.readAfter(c, MAX_BATCH), rendered));
+                // only this thread adds to the queue, so the room checked here is still there
+                if (s.queue.remainingCapacity() < batch.events.size()) {
+                    log.debug("Closing a price change subscriber that fell behind at sequence {}", s.cursor);
+                    remove(s);
+                    continue;
+                }
+                s.queue.addAll(batch.events);
+                s.cursor = batch.cursor;
+                behind |= batch.cursor < last;
+            } else if (ping != null && s.queue.isEmpty()) {
+                s.queue.offer(ping);
+            }
+        }
+        return behind;
+    }
+
+    // Sender of one subscriber: writes its queued events until the client goes away or it is closed
+    private void send(Subscriber s) {
+        try {
+            while (true) {
+                s.emitter.send(s.queue.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // client went away; the container completes the emitter
+            subscribers.remove(s);
+        }
+    }
+
+    private void remove(Subscriber s) {
+        if (subscribers.remove(s)) s.close();
+    }
+
+    private Batch render(PriceChangeFeed.Slice slice, Map<Long, Set<DataWithMediaType>> rendered) {
+        List<Set<DataWithMediaType>> events = new ArrayList<>(slice.entries().size() + 1);
+        if (slice.gap()) {
+            long oldest = slice.entries().isEmpty() ? slice.lastSequence() + 1 : slice.entries().get(0).sequence();
+            events.add(SseEmitter.event().name("reset").data(Map.of("oldestSequence", oldest)).build());
+        }
+        for (PriceChange change : slice.entries()) {
+            events.add(rendered.computeIfAbsent(change.sequence(), seq -> SseEmitter.event()
+                    .id(Long.toString(seq))
+                    .name(change.kind().name().toLowerCase())
+                    .data(toJson(change), MediaType.APPLICATION_JSON)
+                    .build()));
+        }
+        long cursor = slice.entries().isEmpty() ? slice.lastSequence()
+                : slice.entries().get(slice.entries().size() - 1).sequence();
+        return new Batch(events, cursor);
+    }
+
+    private String toJson(PriceChange change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Pre-rendered events for one cursor and the sequence a subscriber is at after receiving them. */
+    private record Batch(List<Set<DataWithMediaType>> events, long cursor) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        // sequence of the last entry queued (not necessarily sent yet)
+        private volatile long cursor;
+        private volatile Future<?> sender;
+
+        private Subscriber(SseEmitter emitter, long cursor, int queueCapacity) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        void close() {
+            Future<?> f = sender;
+            if (f != null) f.cancel(true);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.PriceChange;
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.event.LatestPriceChange;
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process change feed: every effective price change and every ingested discount becomes a
+ * {@link PriceChange} with a sequence number, kept in a fixed-size ring buffer.
+ * Readers resume from the last sequence they saw; entries older than the buffer are lost
+ * and reported as a gap, so the reader can resynchronize from the REST endpoints.
+ */
+@Component
+public class PriceChangeFeed {
+
+    /** Entries after a sequence; {@code gap} means entries between that sequence and the first one are lost. */
+    public record Slice(List<PriceChange> entries, boolean gap, long lastSequence) {
+    }
+
+    private final LatestPriceIndex latestPriceIndex;
+    private final PriceChange[] ring;
+
+    // guarded by this
+    private long lastSequence;
+    private boolean wakeUp;
+
+    public PriceChangeFeed(LatestPriceIndex latestPriceIndex,
+                           @Value("${price-comparator.feed.capacity:10000}") int capacity) {
+        this.latestPriceIndex = latestPriceIndex;
+        this.ring = new PriceChange[Math.max(1, capacity)];
+    }
+
+    @EventListener
+    public void onLatestPricesChanged(LatestPricesChangedEvent event) {
+        List<PriceChange> entries = new ArrayList<>(event.changes().size());
+        for (LatestPriceChange c : event.changes()) {
+            entries.add(new PriceChange(0, PriceChange.Kind.PRICE, c.productId(), c.storeName(),
+                    c.oldPrice(), c.newPrice(), c.priceDate(), null));
+        }
+        append(entries);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDiscountsChanged(DiscountsChangedEvent event) {
+        Map<String, List<Product>> current = latestPriceIndex.latestPrices(
+                event.discounts().stream().map(Discount::getProductId).distinct().toList());
+        List<PriceChange> entries = new ArrayList<>(event.discounts().size());
+        for (Discount d : event.discounts()) {
+            String store = d.getStore().getName();
+            Double oldPrice = current.getOrDefault(d.getProductId(), List.of()).stream()
+                    .filter(p -> p.getKey().getStoreName().equalsIgnoreCase(store))
+                    .map(Product::getPrice)
+                    .findFirst()
+                    .orElse(null);
+            Double newPrice = oldPrice == null ? null
+                    : Math.round(oldPrice * (100 - d.getPercentageOfDiscount())) / 100.0;
+            entries.add(new PriceChange(0, PriceChange.Kind.DISCOUNT, d.getProductId(), store,
+                    oldPrice, newPrice, d.getFromDate(), d.getPercentageOfDiscount()));
+        }
+        append(entries);
+    }
+
+    /** Assigns sequence numbers to the entries (in order), stores them and wakes up waiting readers. */
+    public synchronized void append(List<PriceChange> entries) {
+        if (entries.isEmpty()) return;
+        for (PriceChange e : entries) {
+            long sequence = ++lastSequence;
+            ring[(int) (sequence % ring.length)] = new PriceChange(sequence, e.kind(), e.productId(), e.storeName(),
+                    e.oldPrice(), e.newPrice(), e.date(), e.discountPercentage());
+        }
+        notifyAll();
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Up to {@code max} entries with a sequence greater than {@code after}, oldest first.
+     * A sequence ahead of the feed (e.g. from before a restart) is treated like one that fell out of the buffer.
+     */
+    public synchronized Slice readAfter(long after, int max) {
+        long oldest = Math.max(1, lastSequence - ring.length + 1);
+        boolean gap = after > lastSequence || (lastSequence > 0 && after < oldest - 1);
+        long first = gap ? oldest : after + 1;
+        long last = Math.min(lastSequence, first + Math.max(max, 0) - 1);
+        List<PriceChange> entries = new ArrayList<>((int) Math.max(0, last - first + 1));
+        for (long sequence = first; sequence <= last; sequence++) {
+            entries.add(ring[(int) (sequence % ring.length)]);
+        }
+        return new Slice(entries, gap, lastSequence);
+    }
+
+    /**
+     * Blocks until an entry newer than {@code after} exists, {@link #wakeUp()} was called
+     * or the timeout elapsed, whichever comes first.
+     */
+    public synchronized void await(long after, long timeoutMillis) throws InterruptedException {
+        if (lastSequence <= after && !wakeUp) {
+            wait(timeoutMillis);
+        }
+        wakeUp = false;
+    }
+
+    /** Releases a reader blocked in {@link #await(long, long)} (or makes its next call return immediately). */
+    public synchronized void wakeUp() {
+        wakeUp = true;
+        notifyAll();
+    }
+}
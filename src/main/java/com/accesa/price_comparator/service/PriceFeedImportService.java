@@ -0,0 +1,325 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IngestReport;
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Product.ProductKey;
+import com.accesa.price_comparator.model.Store;
+import com.accesa.price_comparator.repository.PriceFeedJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Streams store CSV feeds into the database.
+ * <ul>
+ *   <li>products: {@code product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency[;storeName;priceDate]}</li>
+ *   <li>discounts: {@code product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount[;storeName]}</li>
+ * </ul>
+ * When the store / date columns are missing they are taken from the file name
+ * ({@code lidl_2025-05-08.csv}, {@code lidl_discounts_2025-05-08.csv}).
+ * Files are read line by line and written in JDBC batches of {@code price-comparator.ingest.batch-size}
+ * rows, so the heap stays flat regardless of the feed size. The files of a directory are imported
+ * concurrently (bounded by the connection pool size).
+ */
+@Service
+public class PriceFeedImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceFeedImportService.class);
+
+    private static final Pattern FEED_FILE_NAME =
+            Pattern.compile("([A-Za-z0-9]+)(_discounts)?_(\\d{4}-\\d{2}-\\d{2})\\.csv");
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final PriceFeedJdbcRepository feedRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher publisher;
+    private final BlockingFanOut fanOut;
+    private final int batchSize;
+
+    public PriceFeedImportService(PriceFeedJdbcRepository feedRepo,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher publisher,
+                                  BlockingFanOut fanOut,
+                                  @Value("${price-comparator.ingest.batch-size:5000}") int batchSize) {
+        this.feedRepo = feedRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.publisher = publisher;
+        this.fanOut = fanOut;
+        this.batchSize = batchSize;
+    }
+
+    /** Imports one product feed file, or every product feed in a directory. */
+    public List<IngestReport> importProducts(Path path) throws IOException {
+        try {
+            return fanOut.map(feedFiles(path, false), this::importProductFile);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Imports one discount feed file, or every discount feed in a directory. */
+    public List<IngestReport> importDiscounts(Path path) throws IOException {
+        try {
+            return fanOut.map(feedFiles(path, true), this::importDiscountFile);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private IngestReport importProductFile(Path file) throws IOException {
+        FeedFileName feedName = FeedFileName.of(file);
+        Progress progress = new Progress(file, "products");
+        CsvLineSplitter splitter = new CsvLineSplitter(';');
+        Map<String, Store> stores = new HashMap<>();
+        Set<String> pendingStores = new LinkedHashSet<>();
+        // keyed by the primary key: duplicates inside one batch would break "on conflict do update"
+        Map<ProductKey, Product> batch = new LinkedHashMap<>();
+
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isHeaderOrBlank(line)) continue;
+                progress.rowsRead++;
+                Product product = parseProduct(splitter, feedName, stores, pendingStores, line);
+                if (product == null) {
+                    progress.reject(line);
+                    continue;
+                }
+                batch.put(product.getKey(), product);
+                if (batch.size() >= batchSize) {
+                    flushProducts(batch, pendingStores, progress);
+                }
+            }
+        }
+        flushProducts(batch, pendingStores, progress);
+        return progress.finish();
+    }
+
+    private IngestReport importDiscountFile(Path file) throws IOException {
+        FeedFileName feedName = FeedFileName.of(file);
+        Progress progress = new Progress(file, "discounts");
+        CsvLineSplitter splitter = new CsvLineSplitter(';');
+        Map<String, Store> stores = new HashMap<>();
+        Set<String> pendingStores = new LinkedHashSet<>();
+        Map<String, Discount> batch = new LinkedHashMap<>();
+
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isHeaderOrBlank(line)) continue;
+                progress.rowsRead++;
+                Discount discount = parseDiscount(splitter, feedName, stores, pendingStores, line);
+                if (discount == null) {
+                    progress.reject(line);
+                    continue;
+                }
+                batch.put(discount.getProductId() + '|' + discount.getStore().getName() + '|' + discount.getFromDate(), discount);
+                if (batch.size() >= batchSize) {
+                    flushDiscounts(batch, pendingStores, progress);
+                }
+            }
+        }
+        flushDiscounts(batch, pendingStores, progress);
+        return progress.finish();
+    }
+
+    private void flushProducts(Map<ProductKey, Product> batch, Set<String> pendingStores, Progress progress) {
+        if (batch.isEmpty()) return;
+        List<Product> rows = List.copyOf(batch.values());
+        List<String> newStores = List.copyOf(pendingStores);
+        transactionTemplate.executeWithoutResult(status -> {
+            // published before the writes: its listeners apply it after the commit, the snapshot writer must see it
+            // in progress from the moment the writes bump the data version
+            publisher.publishEvent(new ProductPricesChangedEvent(rows));
+            if (!newStores.isEmpty()) feedRepo.upsertStores(newStores);
+            feedRepo.upsertProducts(rows);
+            feedRepo.upsertLatestPrices(rows);
+        });
+        pendingStores.clear();
+        batch.clear();
+        progress.written(rows.size());
+    }
+
+    private void flushDiscounts(Map<String, Discount> batch, Set<String> pendingStores, Progress progress) {
+        if (batch.isEmpty()) return;
+        List<Discount> rows = List.copyOf(batch.values());
+        List<String> newStores = List.copyOf(pendingStores);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!newStores.isEmpty()) feedRepo.upsertStores(newStores);
+            feedRepo.upsertDiscounts(rows);
+            publisher.publishEvent(new DiscountsChangedEvent(rows));
+        });
+        pendingStores.clear();
+        batch.clear();
+        progress.written(rows.size());
+    }
+
+    private Product parseProduct(CsvLineSplitter splitter, FeedFileName feedName, Map<String, Store> stores,
+                                 Set<String> pendingStores, String line) {
+        int fields = splitter.split(line);
+        if (fields < 8) return null;
+        try {
+            String storeName = fields >= 10 ? splitter.get(8) : feedName.storeName();
+            LocalDate priceDate = fields >= 10 ? LocalDate.parse(splitter.get(9)) : feedName.date();
+            if (storeName == null || storeName.isEmpty() || priceDate == null) return null;
+
+            ProductKey key = new ProductKey();
+            key.setId(splitter.get(0));
+            key.setStoreName(storeName);
+            key.setPriceDate(priceDate);
+
+            Product product = new Product();
+            product.setKey(key);
+            product.setStore(store(stores, pendingStores, storeName));
+            product.setProductName(splitter.get(1));
+            product.setProductCategory(splitter.get(2));
+            product.setBrand(splitter.get(3));
+            product.setPackageQuantity(splitter.getDouble(4));
+            product.setPackageUnit(splitter.get(5));
+            product.setPrice(splitter.getDouble(6));
+            product.setCurrency(splitter.get(7));
+            return product;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private Discount parseDiscount(CsvLineSplitter splitter, FeedFileName feedName, Map<String, Store> stores,
+                                   Set<String> pendingStores, String line) {
+        int fields = splitter.split(line);
+        if (fields < 9) return null;
+        try {
+            String storeName = fields >= 10 ? splitter.get(9) : feedName.storeName();
+            if (storeName == null || storeName.isEmpty()) return null;
+
+            Discount discount = new Discount();
+            discount.setProductId(splitter.get(0));
+            discount.setProductName(splitter.get(1));
+            discount.setBrand(splitter.get(2));
+            discount.setPackageQuantity(splitter.getDouble(3));
+            discount.setPackageUnit(splitter.get(4));
+            discount.setProductCategory(splitter.get(5));
+            discount.setFromDate(LocalDate.parse(splitter.get(6)));
+            discount.setToDate(LocalDate.parse(splitter.get(7)));
+            discount.setPercentageOfDiscount(Integer.parseInt(splitter.get(8)));
+            discount.setStore(store(stores, pendingStores, storeName));
+            discount.setPriceDate(feedName.date());
+            return discount;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // One Store instance per name and file; new names are upserted with the next batch
+    private static Store store(Map<String, Store> stores, Set<String> pendingStores, String name) {
+        return stores.computeIfAbsent(name, n -> {
+            pendingStores.add(n);
+            Store store = new Store();
+            store.setName(n);
+            return store;
+        });
+    }
+
+    private static boolean isHeaderOrBlank(String line) {
+        return line.isBlank() || line.startsWith("product_id");
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
+    private static List<Path> feedFiles(Path path, boolean discounts) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(f -> f.getFileName().toString().endsWith(".csv"))
+                    .filter(f -> f.getFileName().toString().contains("_discounts") == discounts)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /** Store and date encoded in the feed file name; both null when the name does not follow the convention. */
+    private record FeedFileName(String storeName, LocalDate date) {
+
+        static FeedFileName of(Path file) {
+            Matcher m = FEED_FILE_NAME.matcher(file.getFileName().toString());
+            if (!m.matches()) {
+                return new FeedFileName(null, null);
+            }
+            String store = m.group(1);
+            // "lidl_2025-05-08.csv" -> store "Lidl"
+            store = Character.toUpperCase(store.charAt(0)) + store.substring(1);
+            return new FeedFileName(store, LocalDate.parse(m.group(3)));
+        }
+    }
+
+    /** Counters and throughput / heap sampling for one file. */
+    private static final class Progress {
+        private static final int LOGGED_REJECTS = 10;
+
+        private final Path file;
+        private final String kind;
+        private final long startNanos = System.nanoTime();
+        private long rowsRead;
+        private long rowsWritten;
+        private long rowsRejected;
+        private long peakHeapUsed;
+
+        Progress(Path file, String kind) {
+            this.file = file;
+            this.kind = kind;
+        }
+
+        void reject(String line) {
+            if (rowsRejected++ < LOGGED_REJECTS) {
+                log.warn("Rejected {} row in {}: {}", kind, file.getFileName(), line);
+            }
+        }
+
+        void written(int rows) {
+            rowsWritten += rows;
+            Runtime rt = Runtime.getRuntime();
+            peakHeapUsed = Math.max(peakHeapUsed, rt.totalMemory() - rt.freeMemory());
+        }
+
+        IngestReport finish() {
+            long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            double rowsPerSecond = rowsWritten * 1000.0 / elapsedMillis;
+            IngestReport report = new IngestReport(file.toString(), kind, rowsRead, rowsWritten, rowsRejected,
+                    elapsedMillis, rowsPerSecond, peakHeapUsed / (1024 * 1024));
+            log.info("Imported {} {}: {} rows written, {} rejected, {} ms ({} rows/s, peak heap {} MB)",
+                    kind, file.getFileName(), rowsWritten, rowsRejected, elapsedMillis,
+                    String.format("%.0f", rowsPerSecond), report.peakHeapUsedMb());
+            return report;
+        }
+    }
+}
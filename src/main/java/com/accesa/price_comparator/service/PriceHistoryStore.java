@@ -0,0 +1,438 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.dto.LowestPrice;
+import com.accesa.price_comparator.dto.PriceHistory;
+import com.accesa.price_comparator.dto.PricePoint;
+import com.accesa.price_comparator.dto.PriceRollup;
+import com.accesa.price_comparator.dto.PriceStatistics;
+import com.accesa.price_comparator.dto.RollupPeriod;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.repository.PriceHistoryJdbcRepository;
+import com.accesa.price_comparator.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory price history: per product and store, a sorted {@code int[]} of epoch days
+ * and a parallel {@code double[]} of prices (12 bytes per data point).
+ * Product metadata (name, brand, category, package) is kept once per product, with its strings interned.
+ * Every series also keeps weekly and monthly rollups ({@link PeriodRollups}), maintained as points arrive,
+ * so period statistics and "lowest price since" checks do not scan the raw points.
+ * Built at startup from a projection query and kept current from {@link ProductPricesChangedEvent}s.
+ */
+@Component
+public class PriceHistoryStore implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryStore.class);
+
+    private final PriceHistoryJdbcRepository historyRepo;
+    private final ProductRepository productRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, ProductHistory> products = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+    private long points;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public PriceHistoryStore(PriceHistoryJdbcRepository historyRepo, ProductRepository productRepo) {
+        this.historyRepo = historyRepo;
+        this.productRepo = productRepo;
+    }
+
+    @Override
+    public String name() {
+        return "price-history";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<Product> snapshots = productRepo.findLatestSnapshots();
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            strings.clear();
+            points = 0;
+            snapshots.forEach(this::updateMetadata);
+            historyRepo.forEachPricePoint((productId, storeName, epochDay, price) ->
+                    put(productId, storeName, epochDay, price));
+            products.values().forEach(h -> h.stores.values().forEach(Series::trim));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Price history store built: {} products, {} points in {} ms", products.size(), points, lastRebuildMillis);
+    }
+
+    @Override
+    public boolean restore(PriceSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            strings.clear();
+            points = 0;
+            snapshot.latest().forEach(this::updateMetadata);
+            for (PriceSnapshot.Series s : snapshot.history()) {
+                for (int i = 0; i < s.days().length; i++) {
+                    put(s.productId(), s.storeName(), s.days()[i], s.prices()[i]);
+                }
+            }
+            products.values().forEach(h -> h.stores.values().forEach(Series::trim));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Price history store restored from snapshot: {} products, {} points in {} ms",
+                products.size(), points, lastRebuildMillis);
+        return true;
+    }
+
+    /** Copies of every price series (for the {@link PriceSnapshotFile}). */
+    public List<PriceSnapshot.Series> allSeries() {
+        lock.readLock().lock();
+        try {
+            List<PriceSnapshot.Series> result = new ArrayList<>();
+            products.forEach((productId, history) -> history.stores.forEach((store, s) ->
+                    result.add(new PriceSnapshot.Series(productId, store,
+                            Arrays.copyOf(s.days, s.size), Arrays.copyOf(s.prices, s.size)))));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesChanged(ProductPricesChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Product p : event.products()) {
+                if (p.getKey() == null || p.getPriceDate() == null) continue;
+                updateMetadata(p);
+                put(p.getId(), p.getKey().getStoreName(), (int) p.getPriceDate().toEpochDay(), p.getPrice());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Price history of a product, optionally limited to one store and to {@code [from, to]} (both inclusive, nullable).
+     * When {@code maxPoints > 0}, every store series is downsampled to at most that many points:
+     * the range is split into equal date buckets and the last price of each bucket is kept.
+     *
+     * @return the history, or {@code null} if the product is unknown
+     */
+    public PriceHistory history(String productId, String storeName, LocalDate from, LocalDate to, int maxPoints) {
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            ProductHistory history = products.get(productId);
+            if (history == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            Map<String, List<PricePoint>> series = new TreeMap<>();
+            history.stores.forEach((store, s) -> {
+                if (storeName == null || storeName.isEmpty() || store.equalsIgnoreCase(storeName)) {
+                    List<PricePoint> selected = s.slice(fromDay, toDay, maxPoints);
+                    if (!selected.isEmpty()) series.put(store, selected);
+                }
+            });
+            return new PriceHistory(productId, history.productName, history.brand, history.productCategory,
+                    history.packageQuantity, history.packageUnit, history.currency, series);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Last date of a keyset page that holds at most {@code size} points of every store series in
+     * {@code [from, to]}, or {@code null} if the whole range fits into one page.
+     */
+    public LocalDate pageEnd(String productId, String storeName, LocalDate from, LocalDate to, int size) {
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            ProductHistory history = products.get(productId);
+            if (history == null) return null;
+            int end = Integer.MAX_VALUE;
+            for (Map.Entry<String, Series> e : history.stores.entrySet()) {
+                if (storeName == null || storeName.isEmpty() || e.getKey().equalsIgnoreCase(storeName)) {
+                    end = Math.min(end, e.getValue().dayOfNth(fromDay, toDay, size));
+                }
+            }
+            return end == Integer.MAX_VALUE ? null : LocalDate.ofEpochDay(end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Price statistics of a product per store for the periods overlapping {@code [from, to]} (both nullable),
+     * optionally limited to one store.
+     *
+     * @return the statistics, or {@code null} if the product is unknown
+     */
+    public PriceStatistics rollups(String productId, String storeName, RollupPeriod period, LocalDate from, LocalDate to) {
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            ProductHistory history = products.get(productId);
+            if (history == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            Map<String, List<PriceRollup>> stores = new TreeMap<>();
+            history.stores.forEach((store, s) -> {
+                if (storeName == null || storeName.isEmpty() || store.equalsIgnoreCase(storeName)) {
+                    List<PriceRollup> rollups = s.rollups(period, fromDay, toDay);
+                    if (!rollups.isEmpty()) stores.put(store, rollups);
+                }
+            });
+            return new PriceStatistics(productId, period, stores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowest price of a product on or after {@code since}, across stores or in one store, compared with
+     * its cheapest current price. Costs at most one month of points plus one aggregate per month and store.
+     *
+     * @return the lowest price, or {@code null} if the product is unknown or has no price in the window
+     */
+    public LowestPrice lowestSince(String productId, String storeName, LocalDate since) {
+        int fromDay = (int) since.toEpochDay();
+        lock.readLock().lock();
+        try {
+            ProductHistory history = products.get(productId);
+            if (history == null) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            double lowest = Double.MAX_VALUE;
+            int lowestDay = 0;
+            String lowestStore = null;
+            double current = Double.MAX_VALUE;
+            String currentStore = null;
+            for (Map.Entry<String, Series> e : history.stores.entrySet()) {
+                if (storeName != null && !storeName.isEmpty() && !e.getKey().equalsIgnoreCase(storeName)) continue;
+                Series s = e.getValue();
+                int min = s.lowestSince(fromDay);
+                if (min >= 0 && s.prices[min] < lowest) {
+                    lowest = s.prices[min];
+                    lowestDay = s.days[min];
+                    lowestStore = e.getKey();
+                }
+                if (s.size > 0 && s.prices[s.size - 1] < current) {
+                    current = s.prices[s.size - 1];
+                    currentStore = e.getKey();
+                }
+            }
+            if (lowestStore == null) return null;
+            return new LowestPrice(productId, since, lowest, lowestStore, LocalDate.ofEpochDay(lowestDay),
+                    current, currentStore, current <= lowest);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return IndexStats.of(name(), points, hits.sum(), misses.sum(), lastRebuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void put(String productId, String storeName, int epochDay, double price) {
+        ProductHistory history = products.computeIfAbsent(productId, id -> new ProductHistory());
+        if (history.stores.computeIfAbsent(intern(storeName), s -> new Series()).put(epochDay, price)) {
+            points++;
+        }
+    }
+
+    // Caller holds the write lock; the newest snapshot describes the product
+    private void updateMetadata(Product p) {
+        ProductHistory history = products.computeIfAbsent(p.getId(), id -> new ProductHistory());
+        int day = (int) p.getPriceDate().toEpochDay();
+        if (day < history.metadataDay) return;
+        history.metadataDay = day;
+        history.productName = intern(p.getProductName());
+        history.brand = intern(p.getBrand());
+        history.productCategory = intern(p.getProductCategory());
+        history.packageQuantity = p.getPackageQuantity();
+        history.packageUnit = intern(p.getPackageUnit());
+        history.currency = intern(p.getCurrency());
+    }
+
+    private String intern(String value) {
+        return value == null ? null : strings.computeIfAbsent(value, v -> v);
+    }
+
+    /** Metadata of a product plus its price series per store. */
+    private static final class ProductHistory {
+        private final Map<String, Series> stores = new HashMap<>(4);
+        private int metadataDay = Integer.MIN_VALUE;
+        private String productName;
+        private String brand;
+        private String productCategory;
+        private double packageQuantity;
+        private String packageUnit;
+        private String currency;
+    }
+
+    /** Date-sorted price series of one product in one store, with its weekly and monthly rollups. */
+    private static final class Series {
+        private int[] days = new int[8];
+        private double[] prices = new double[8];
+        private int size;
+        private final PeriodRollups weeks = new PeriodRollups(RollupPeriod.WEEK);
+        private final PeriodRollups months = new PeriodRollups(RollupPeriod.MONTH);
+
+        /** Inserts or replaces the price of a day; returns {@code true} when a new point was added. */
+        boolean put(int day, double price) {
+            if (size == 0 || day > days[size - 1]) {
+                ensureCapacity();
+                days[size] = day;
+                prices[size] = price;
+                size++;
+                weeks.append(day, price);
+                months.append(day, price);
+                return true;
+            }
+            int pos = Arrays.binarySearch(days, 0, size, day);
+            if (pos >= 0) {
+                if (prices[pos] != price) {
+                    prices[pos] = price;
+                    refreshRollups(day);
+                }
+                return false;
+            }
+            int insertAt = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+            System.arraycopy(prices, insertAt, prices, insertAt + 1, size - insertAt);
+            days[insertAt] = day;
+            prices[insertAt] = price;
+            size++;
+            refreshRollups(day);
+            return true;
+        }
+
+        void trim() {
+            days = Arrays.copyOf(days, size);
+            prices = Arrays.copyOf(prices, size);
+            weeks.trim();
+            months.trim();
+        }
+
+        List<PriceRollup> rollups(RollupPeriod period, int fromDay, int toDay) {
+            return switch (period) {
+                case WEEK -> weeks.slice(fromDay, toDay);
+                case MONTH -> months.slice(fromDay, toDay);
+                case DAY -> {
+                    int lo = lowerBound(fromDay);
+                    int hi = toDay == Integer.MAX_VALUE ? size : lowerBound(toDay + 1);
+                    List<PriceRollup> result = new ArrayList<>(Math.max(0, hi - lo));
+                    for (int i = lo; i < hi; i++) {
+                        result.add(new PriceRollup(LocalDate.ofEpochDay(days[i]), 1, prices[i], prices[i], prices[i], 0, prices[i]));
+                    }
+                    yield result;
+                }
+            };
+        }
+
+        /**
+         * Index of the (earliest) lowest point on or after {@code fromDay}, or -1 if there is none:
+         * the points up to the first whole month, then the minimum of every following month.
+         */
+        int lowestSince(int fromDay) {
+            int monthStart = RollupPeriod.MONTH.start(fromDay);
+            int firstWholeMonth = monthStart == fromDay ? fromDay : RollupPeriod.MONTH.next(monthStart);
+            int best = -1;
+            for (int i = lowerBound(fromDay); i < size && days[i] < firstWholeMonth; i++) {
+                if (best < 0 || prices[i] < prices[best]) best = i;
+            }
+            for (int m = months.firstStartingFrom(firstWholeMonth); m < months.size(); m++) {
+                if (best < 0 || months.min(m) < prices[best]) best = lowerBound(months.minDay(m));
+            }
+            return best;
+        }
+
+        private void refreshRollups(int day) {
+            weeks.refresh(day, days, prices, size);
+            months.refresh(day, days, prices, size);
+        }
+
+        List<PricePoint> slice(int fromDay, int toDay, int maxPoints) {
+            int lo = lowerBound(fromDay);
+            int hi = toDay == Integer.MAX_VALUE ? size : lowerBound(toDay + 1);
+            if (lo >= hi) return List.of();
+            List<PricePoint> result = new ArrayList<>(maxPoints > 0 ? Math.min(maxPoints, hi - lo) : hi - lo);
+            if (maxPoints <= 0 || hi - lo <= maxPoints) {
+                for (int i = lo; i < hi; i++) result.add(point(i));
+                return result;
+            }
+            long span = (long) days[hi - 1] - days[lo] + 1;
+            long width = (span + maxPoints - 1) / maxPoints;
+            for (int i = lo; i < hi; i++) {
+                boolean lastOfBucket = i == hi - 1 || (days[i + 1] - days[lo]) / width != (days[i] - days[lo]) / width;
+                if (lastOfBucket) result.add(point(i));
+            }
+            return result;
+        }
+
+        /** Day of the n-th point in {@code [fromDay, toDay]}, or {@code Integer.MAX_VALUE} if there are at most n. */
+        int dayOfNth(int fromDay, int toDay, int n) {
+            int lo = lowerBound(fromDay);
+            int hi = toDay == Integer.MAX_VALUE ? size : lowerBound(toDay + 1);
+            return hi - lo > n ? days[lo + n - 1] : Integer.MAX_VALUE;
+        }
+
+        private PricePoint point(int i) {
+            return new PricePoint(LocalDate.ofEpochDay(days[i]), prices[i]);
+        }
+
+        private int lowerBound(int day) {
+            int pos = Arrays.binarySearch(days, 0, size, day);
+            return pos >= 0 ? pos : -pos - 1;
+        }
+
+        private void ensureCapacity() {
+            if (size == days.length) {
+                int capacity = Math.max(8, size + (size >> 1));
+                days = Arrays.copyOf(days, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+            }
+        }
+    }
+}
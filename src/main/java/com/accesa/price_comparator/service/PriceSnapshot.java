@@ -0,0 +1,22 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.model.Product;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Contents of a {@link PriceSnapshotFile}: the data the price indexes are built from.
+ *
+ * @param dataVersion the database's price data version when the snapshot was taken
+ *                    ({@link com.accesa.price_comparator.repository.PriceFeedJdbcRepository#dataVersion()})
+ * @param stores  store names
+ * @param latest  newest snapshot per product and store (with its catalog attributes)
+ * @param history date-sorted price series per product and store
+ */
+public record PriceSnapshot(Instant createdAt, long dataVersion, List<String> stores, List<Product> latest, List<Series> history) {
+
+    /** Price series of one product in one store; {@code days} are epoch days, ascending. */
+    public record Series(String productId, String storeName, int[] days, double[] prices) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.model.CatalogProduct;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Product.ProductKey;
+import com.accesa.price_comparator.model.Store;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the price dataset ({@link PriceSnapshot}), so a restart can warm the price indexes
+ * from a memory-mapped file instead of the database.
+ * <p>
+ * Layout (big-endian): a 40-byte header {@code magic, version, createdAt millis, data version, payload length,
+ * CRC32 of the payload},
+ * then the payload: a string table (every name, id, brand, ... stored once and referenced by index, -1 = null),
+ * the stores, the catalog (one entry per product code), the latest prices and the price series as
+ * {@code int[]} days + {@code double[]} prices.
+ * A file with another magic / version, a wrong length or checksum, or that cannot be decoded is ignored
+ * (the caller falls back to a full rebuild). Files are written to a temporary file and moved into place.
+ */
+@Component
+public class PriceSnapshotFile {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceSnapshotFile.class);
+
+    static final int MAGIC = 0x50435346; // "PCSF"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 40;
+
+    private final Path path;
+
+    public PriceSnapshotFile(@Value("${price-comparator.snapshot.path:data/price-snapshot.bin}") Path path) {
+        this.path = path;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /** Reads the snapshot, or returns empty when there is none or it is not usable. */
+    public Optional<PriceSnapshot> read() {
+        if (!Files.isRegularFile(path)) {
+            log.info("No price snapshot at {}", path);
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return rejected("unexpected size " + size);
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = file.getInt();
+            int version = file.getInt();
+            Instant createdAt = Instant.ofEpochMilli(file.getLong());
+            long dataVersion = file.getLong();
+            long payloadLength = file.getLong();
+            long checksum = file.getLong();
+            if (magic != MAGIC) return rejected("not a snapshot file");
+            if (version != VERSION) return rejected("version " + version + ", expected " + VERSION);
+            if (payloadLength != size - HEADER_SIZE) return rejected("truncated");
+            ByteBuffer payload = file.slice(HEADER_SIZE, (int) payloadLength);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) return rejected("checksum mismatch");
+            return Optional.of(decode(payload, createdAt, dataVersion));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Price snapshot {} is not usable, falling back to a full rebuild", path, e);
+            return Optional.empty();
+        }
+    }
+
+    /** Writes the snapshot, replacing the current file atomically. */
+    public void write(PriceSnapshot snapshot) {
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            try {
+                writeTo(tmp, snapshot);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write price snapshot " + path, e);
+        }
+    }
+
+    private Optional<PriceSnapshot> rejected(String reason) {
+        log.warn("Price snapshot {} ignored ({}), falling back to a full rebuild", path, reason);
+        return Optional.empty();
+    }
+
+    private static void writeTo(Path file, PriceSnapshot snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            // not closed here: closing the stream would close the channel before the header is written
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+            writePayload(out, snapshot);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(snapshot.createdAt().toEpochMilli())
+                    .putLong(snapshot.dataVersion())
+                    .putLong(out.size())
+                    .putLong(crc.getValue())
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void writePayload(DataOutputStream out, PriceSnapshot snapshot) throws IOException {
+        Map<String, Product> catalog = new LinkedHashMap<>();
+        for (Product p : snapshot.latest()) {
+            catalog.putIfAbsent(p.getId(), p);
+        }
+
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        snapshot.stores().forEach(s -> intern(strings, s));
+        for (Product p : catalog.values()) {
+            intern(strings, p.getId());
+            intern(strings, p.getProductName());
+            intern(strings, p.getProductCategory());
+            intern(strings, p.getBrand());
+            intern(strings, p.getPackageUnit());
+            intern(strings, p.getCurrency());
+        }
+        for (Product p : snapshot.latest()) intern(strings, p.getKey().getStoreName());
+        for (PriceSnapshot.Series s : snapshot.history()) {
+            intern(strings, s.productId());
+            intern(strings, s.storeName());
+        }
+
+        out.writeInt(strings.size());
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeInt(snapshot.stores().size());
+        for (String store : snapshot.stores()) out.writeInt(strings.get(store));
+
+        out.writeInt(catalog.size());
+        for (Product p : catalog.values()) {
+            out.writeInt(ref(strings, p.getId()));
+            out.writeInt(ref(strings, p.getProductName()));
+            out.writeInt(ref(strings, p.getProductCategory()));
+            out.writeInt(ref(strings, p.getBrand()));
+            out.writeDouble(p.getPackageQuantity());
+            out.writeInt(ref(strings, p.getPackageUnit()));
+            out.writeInt(ref(strings, p.getCurrency()));
+        }
+
+        out.writeInt(snapshot.latest().size());
+        for (Product p : snapshot.latest()) {
+            out.writeInt(ref(strings, p.getId()));
+            out.writeInt(ref(strings, p.getKey().getStoreName()));
+            out.writeInt((int) p.getPriceDate().toEpochDay());
+            out.writeDouble(p.getPrice());
+        }
+
+        out.writeInt(snapshot.history().size());
+        for (PriceSnapshot.Series s : snapshot.history()) {
+            out.writeInt(ref(strings, s.productId()));
+            out.writeInt(ref(strings, s.storeName()));
+            out.writeInt(s.days().length);
+            for (int day : s.days()) out.writeInt(day);
+            for (double price : s.prices()) out.writeDouble(price);
+        }
+    }
+
+    private static PriceSnapshot decode(ByteBuffer in, Instant createdAt, long dataVersion) {
+        String[] strings = new String[in.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<String> stores = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) stores.add(strings[in.getInt()]);
+
+        Map<String, CatalogProduct> catalog = new HashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            CatalogProduct c = new CatalogProduct();
+            c.setId(string(strings, in.getInt()));
+            c.setProductName(string(strings, in.getInt()));
+            c.setProductCategory(string(strings, in.getInt()));
+            c.setBrand(string(strings, in.getInt()));
+            c.setPackageQuantity(in.getDouble());
+            c.setPackageUnit(string(strings, in.getInt()));
+            c.setCurrency(string(strings, in.getInt()));
+            catalog.put(c.getId(), c);
+        }
+
+        Map<String, Store> storesByName = new HashMap<>();
+        List<Product> latest = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            ProductKey key = new ProductKey();
+            key.setId(strings[in.getInt()]);
+            key.setStoreName(strings[in.getInt()]);
+            key.setPriceDate(LocalDate.ofEpochDay(in.getInt()));
+            Product p = new Product();
+            p.setKey(key);
+            p.setStore(storesByName.computeIfAbsent(key.getStoreName(), name -> {
+                Store s = new Store();
+                s.setName(name);
+                return s;
+            }));
+            p.setCatalog(catalog.get(key.getId()));
+            p.setPrice(in.getDouble());
+            latest.add(p);
+        }
+
+        List<PriceSnapshot.Series> history = new ArrayList<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            String productId = strings[in.getInt()];
+            String storeName = strings[in.getInt()];
+            int[] days = new int[in.getInt()];
+            double[] prices = new double[days.length];
+            in.asIntBuffer().get(days);
+            in.position(in.position() + days.length * Integer.BYTES);
+            in.asDoubleBuffer().get(prices);
+            in.position(in.position() + prices.length * Double.BYTES);
+            history.add(new PriceSnapshot.Series(productId, storeName, days, prices));
+        }
+        return new PriceSnapshot(createdAt, dataVersion, stores, latest, history);
+    }
+
+    private static void intern(Map<String, Integer> strings, String value) {
+        if (value != null) strings.putIfAbsent(value, strings.size());
+    }
+
+    private static int ref(Map<String, Integer> strings, String value) {
+        return value == null ? -1 : strings.get(value);
+    }
+
+    private static String string(String[] strings, int ref) {
+        return ref < 0 ? null : strings[ref];
+    }
+}
@@ -0,0 +1,121 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Store;
+import com.accesa.price_comparator.repository.PriceFeedJdbcRepository;
+import com.accesa.price_comparator.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the {@link PriceSnapshotFile} current: price changes (feed imports, edits) mark the snapshot dirty and
+ * it is rewritten from the in-memory indexes on the next check ({@code price-comparator.snapshot.write-delay-millis}),
+ * so one import of many batches produces one file. Nothing is written before the warm-up has finished;
+ * the first check after a warm-up writes the file unless the indexes were restored from it (a rebuild from the
+ * database replaces a missing or stale one).
+ * <p>
+ * The snapshot records the database's data version, and that version must not claim changes the indexes have not
+ * applied yet: the database bumps it when a change is written, the indexes apply the change after the commit.
+ * Price changes are therefore published before they are written and counted as unapplied until their transaction
+ * has completed (after the indexes' after-commit listeners), and a snapshot is only written when no change was
+ * unapplied or started while the indexes were copied and the version did not move; otherwise it stays dirty.
+ */
+@Component
+public class PriceSnapshotWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceSnapshotWriter.class);
+
+    private final PriceSnapshotFile snapshotFile;
+    private final LatestPriceIndex latestPriceIndex;
+    private final PriceHistoryStore historyStore;
+    private final StoreRepository storeRepo;
+    private final PriceFeedJdbcRepository priceFeedJdbc;
+    private final IndexWarmUp warmUp;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final AtomicBoolean firstCheck = new AtomicBoolean(true);
+    private final AtomicInteger unapplied = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+
+    public PriceSnapshotWriter(PriceSnapshotFile snapshotFile,
+                               LatestPriceIndex latestPriceIndex,
+                               PriceHistoryStore historyStore,
+                               StoreRepository storeRepo,
+                               PriceFeedJdbcRepository priceFeedJdbc,
+                               IndexWarmUp warmUp) {
+        this.snapshotFile = snapshotFile;
+        this.latestPriceIndex = latestPriceIndex;
+        this.historyStore = historyStore;
+        this.storeRepo = storeRepo;
+        this.priceFeedJdbc = priceFeedJdbc;
+        this.warmUp = warmUp;
+    }
+
+    /** Runs when the change is published, before its rows are written. */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPricesChanging(ProductPricesChangedEvent event) {
+        started.incrementAndGet();
+        unapplied.incrementAndGet();
+    }
+
+    /** Runs after the indexes' after-commit listeners (or after a rollback). */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onPricesChanged(ProductPricesChangedEvent event) {
+        unapplied.decrementAndGet();
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${price-comparator.snapshot.write-delay-millis:30000}")
+    public void writeIfDirty() {
+        CompletableFuture<Void> warm = warmUp.completion();
+        if (!warm.isDone() || warm.isCompletedExceptionally()) return;
+        if (firstCheck.getAndSet(false) && !warmUp.restoredFromSnapshot()) dirty.set(true);
+        if (!dirty.getAndSet(false)) return;
+        try {
+            if (!write()) dirty.set(true);
+        } catch (RuntimeException e) {
+            dirty.set(true);
+            log.error("Could not write the price snapshot, will retry", e);
+        }
+    }
+
+    /**
+     * Writes the snapshot now, unless a price change is being applied to the indexes.
+     *
+     * @return false if nothing was written because of a change in progress
+     */
+    public boolean write() {
+        long start = System.currentTimeMillis();
+        long startedBefore = started.get();
+        if (unapplied.get() != 0) return false;
+        long dataVersion = priceFeedJdbc.dataVersion();
+        List<String> stores = storeRepo.findAll().stream().map(Store::getName).toList();
+        List<Product> latest = latestPriceIndex.allLatestPrices();
+        List<PriceSnapshot.Series> history = historyStore.allSeries();
+        if (unapplied.get() != 0 || started.get() != startedBefore || priceFeedJdbc.dataVersion() != dataVersion) {
+            log.debug("Price snapshot skipped: prices changed while the indexes were copied");
+            return false;
+        }
+        PriceSnapshot snapshot = new PriceSnapshot(Instant.now(), dataVersion, stores, latest, history);
+        snapshotFile.write(snapshot);
+        log.info("Price snapshot written to {}: {} latest prices, {} series in {} ms", snapshotFile.path(),
+                snapshot.latest().size(), snapshot.history().size(), System.currentTimeMillis() - start);
+        return true;
+    }
+}
@@ -0,0 +1,366 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.CursorPage;
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory search over product metadata (name, brand, category), one entry per product id.
+ * <ul>
+ *   <li>name: trigram index on the lower-cased name, candidates verified with {@code contains}</li>
+ *   <li>category / brand: exact (case-insensitive) postings</li>
+ * </ul>
+ * Every result list is ordered by product name and paged, independent of how many dated
+ * price rows exist per product. The representative row of a product is its newest snapshot.
+ * Pages are addressed either by number or by a cursor (the sort key of the last product of the
+ * previous page), which continues from the cursor in O(log n) instead of skipping earlier pages.
+ * A rebuild runs its query while holding the lock the change events take (searches only wait for the swap),
+ * so a change committed during the rebuild is either in its query or applied after it.
+ */
+@Component
+public class ProductSearchIndex implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepo;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // orders rebuilds and restores against change events
+    private final ReentrantLock updates = new ReentrantLock();
+
+    // sort key = lower(name) + '\0' + id, so iteration order is "by name, then id"
+    private final NavigableMap<String, Product> catalog = new TreeMap<>();
+    private final Map<String, String> sortKeyById = new HashMap<>();
+    private final Map<String, NavigableSet<String>> byCategory = new HashMap<>();
+    private final Map<String, NavigableSet<String>> byBrand = new HashMap<>();
+    private final Map<String, Set<String>> byTrigram = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    public ProductSearchIndex(ProductRepository productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @Override
+    public String name() {
+        return "product-search";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        updates.lock();
+        try {
+            load(productRepo.findLatestSnapshots());
+        } finally {
+            updates.unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Product search index built: {} products in {} ms", sortKeyById.size(), lastRebuildMillis);
+    }
+
+    @Override
+    public boolean restore(PriceSnapshot snapshot) {
+        long start = System.currentTimeMillis();
+        updates.lock();
+        try {
+            load(snapshot.latest());
+        } finally {
+            updates.unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Product search index restored from snapshot: {} products in {} ms", sortKeyById.size(), lastRebuildMillis);
+        return true;
+    }
+
+    // Caller holds the updates lock
+    private void load(List<Product> snapshots) {
+        lock.writeLock().lock();
+        try {
+            catalog.clear();
+            sortKeyById.clear();
+            byCategory.clear();
+            byBrand.clear();
+            byTrigram.clear();
+            snapshots.forEach(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricesChanged(ProductPricesChangedEvent event) {
+        updates.lock();
+        lock.writeLock().lock();
+        try {
+            event.products().forEach(this::upsert);
+        } finally {
+            lock.writeLock().unlock();
+            updates.unlock();
+        }
+    }
+
+    /** All products, ordered by name. */
+    public List<Product> all(int page, int size) {
+        lock.readLock().lock();
+        try {
+            return record(page(catalog.values().iterator(), page, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Products of a category (case-insensitive), ordered by name. */
+    public List<Product> byCategory(String category, int page, int size) {
+        return postings(byCategory, category, page, size);
+    }
+
+    /** Products of a brand (case-insensitive), ordered by name. */
+    public List<Product> byBrand(String brand, int page, int size) {
+        return postings(byBrand, brand, page, size);
+    }
+
+    /** Products whose name contains the given text (case-insensitive), ordered by name. */
+    public List<Product> byNameContaining(String namePart, int page, int size) {
+        String needle = normalize(namePart);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                // too short for the trigram index: walk the (deduplicated) catalog in name order
+                Iterator<Product> matches = catalog.values().stream()
+                        .filter(p -> normalize(p.getProductName()).contains(needle))
+                        .iterator();
+                return record(page(matches, page, size));
+            }
+            Set<String> candidates = smallestPosting(needle);
+            TreeSet<String> matched = new TreeSet<>();
+            for (String id : candidates) {
+                String sortKey = sortKeyById.get(id);
+                if (normalize(catalog.get(sortKey).getProductName()).contains(needle)) {
+                    matched.add(sortKey);
+                }
+            }
+            return record(page(matched.iterator(), page, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Keyset variant of {@link #all(int, int)}: the products after {@code cursor} ({@code null} = first page). */
+    public CursorPage<Product> all(String cursor, int size) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Product> rest = cursor == null ? catalog : catalog.tailMap(cursor, false);
+            return recordPage(slice(rest.keySet().iterator(), size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Keyset variant of {@link #byCategory(String, int, int)}. */
+    public CursorPage<Product> byCategory(String category, String cursor, int size) {
+        return postings(byCategory, category, cursor, size);
+    }
+
+    /** Keyset variant of {@link #byBrand(String, int, int)}. */
+    public CursorPage<Product> byBrand(String brand, String cursor, int size) {
+        return postings(byBrand, brand, cursor, size);
+    }
+
+    /** Keyset variant of {@link #byNameContaining(String, int, int)}. */
+    public CursorPage<Product> byNameContaining(String namePart, String cursor, int size) {
+        String needle = normalize(namePart);
+        lock.readLock().lock();
+        try {
+            if (needle.length() < GRAM) {
+                NavigableMap<String, Product> rest = cursor == null ? catalog : catalog.tailMap(cursor, false);
+                Iterator<String> matches = rest.entrySet().stream()
+                        .filter(e -> normalize(e.getValue().getProductName()).contains(needle))
+                        .map(Map.Entry::getKey)
+                        .iterator();
+                return recordPage(slice(matches, size));
+            }
+            NavigableSet<String> matched = new TreeSet<>();
+            for (String id : smallestPosting(needle)) {
+                String sortKey = sortKeyById.get(id);
+                if ((cursor == null || sortKey.compareTo(cursor) > 0)
+                        && normalize(catalog.get(sortKey).getProductName()).contains(needle)) {
+                    matched.add(sortKey);
+                }
+            }
+            return recordPage(slice(matched.iterator(), size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return IndexStats.of(name(), sortKeyById.size(), hits.sum(), misses.sum(), lastRebuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Product> postings(Map<String, NavigableSet<String>> index, String value, int page, int size) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> sortKeys = index.get(normalize(value));
+            if (sortKeys == null) {
+                return record(Collections.emptyList());
+            }
+            return record(page(sortKeys.iterator(), page, size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CursorPage<Product> postings(Map<String, NavigableSet<String>> index, String value, String cursor, int size) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<String> sortKeys = index.get(normalize(value));
+            if (sortKeys == null) {
+                return recordPage(new CursorPage<>(List.of(), null));
+            }
+            NavigableSet<String> rest = cursor == null ? sortKeys : sortKeys.tailSet(cursor, false);
+            return recordPage(slice(rest.iterator(), size));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> smallestPosting(String needle) {
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            Set<String> ids = byTrigram.get(needle.substring(i, i + GRAM));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    // Resolves sort keys (or products) of one page, skipping the previous pages
+    private List<Product> page(Iterator<?> it, int page, int size) {
+        List<Product> result = new ArrayList<>(Math.min(size, 256));
+        long skip = (long) page * size;
+        while (it.hasNext() && result.size() < size) {
+            Object next = it.next();
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            result.add(next instanceof Product p ? p : catalog.get((String) next));
+        }
+        return result;
+    }
+
+    // Resolves up to size sort keys; the last one becomes the cursor when more remain
+    private CursorPage<Product> slice(Iterator<String> sortKeys, int size) {
+        List<Product> items = new ArrayList<>(Math.min(size, 256));
+        String last = null;
+        while (sortKeys.hasNext() && items.size() < size) {
+            last = sortKeys.next();
+            items.add(catalog.get(last));
+        }
+        return new CursorPage<>(items, sortKeys.hasNext() ? last : null);
+    }
+
+    private CursorPage<Product> recordPage(CursorPage<Product> page) {
+        record(page.items());
+        return page;
+    }
+
+    private List<Product> record(List<Product> result) {
+        if (result.isEmpty()) misses.increment(); else hits.increment();
+        return result;
+    }
+
+    // Caller holds the write lock
+    private void upsert(Product p) {
+        if (p.getId() == null || p.getProductName() == null) return;
+        String oldSortKey = sortKeyById.get(p.getId());
+        if (oldSortKey != null) {
+            Product current = catalog.get(oldSortKey);
+            if (current.getPriceDate() != null && p.getPriceDate() != null && p.getPriceDate().isBefore(current.getPriceDate())) {
+                return;  // an older snapshot never replaces the representative row
+            }
+            unlink(oldSortKey, current);
+        }
+        String sortKey = normalize(p.getProductName()) + '\0' + p.getId();
+        catalog.put(sortKey, p);
+        sortKeyById.put(p.getId(), sortKey);
+        if (p.getProductCategory() != null) {
+            byCategory.computeIfAbsent(normalize(p.getProductCategory()), k -> new TreeSet<>()).add(sortKey);
+        }
+        if (p.getBrand() != null) {
+            byBrand.computeIfAbsent(normalize(p.getBrand()), k -> new TreeSet<>()).add(sortKey);
+        }
+        for (String gram : trigrams(normalize(p.getProductName()))) {
+            byTrigram.computeIfAbsent(gram, k -> new HashSet<>()).add(p.getId());
+        }
+    }
+
+    private void unlink(String sortKey, Product current) {
+        catalog.remove(sortKey);
+        if (current.getProductCategory() != null) {
+            removePosting(byCategory, normalize(current.getProductCategory()), sortKey);
+        }
+        if (current.getBrand() != null) {
+            removePosting(byBrand, normalize(current.getBrand()), sortKey);
+        }
+        for (String gram : trigrams(normalize(current.getProductName()))) {
+            removePosting(byTrigram, gram, current.getId());
+        }
+    }
+
+    private static <S extends Set<String>> void removePosting(Map<String, S> index, String key, String value) {
+        S values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) index.remove(key);
+        }
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+}
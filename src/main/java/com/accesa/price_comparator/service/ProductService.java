@@ -1,13 +1,25 @@
 package com.accesa.price_comparator.service;
 
+import com.accesa.price_comparator.dto.CursorPage;
 import com.accesa.price_comparator.model.Product;
 import com.accesa.price_comparator.repository.ProductRepository;
 import com.accesa.price_comparator.repository.StoreRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service layer pentru operatii legate de entitatea {@link Product}.
@@ -17,12 +29,20 @@ import java.util.Optional;
 @Service
 public class ProductService {
 
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private StoreRepository storeRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Returneaza lista tuturor produselor din baza.
      */
@@ -34,4 +54,50 @@ public class ProductService {
     public List<Product> getProductById(String id) {
         return productRepository.findByKeyId(id);
     }
+
+    /**
+     * Keyset page of a product's rows ordered by (store, date).
+     * {@code cursor} is the {@code nextCursor} of the previous page, or {@code null} for the first page.
+     */
+    public CursorPage<Product> getProductById(String id, String cursor, int size) {
+        size = Math.max(1, size);
+        String afterStore = "";
+        LocalDate afterDate = LocalDate.EPOCH;
+        if (cursor != null) {
+            String[] parts = cursor.split("\0", 2);
+            try {
+                afterStore = parts[0];
+                afterDate = LocalDate.parse(parts[1]);
+            } catch (ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+        }
+        List<Product> rows = productRepository.findByKeyIdAfter(id, afterStore, afterDate, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Product> page = rows.subList(0, size);
+        Product last = page.get(size - 1);
+        return new CursorPage<>(page, last.getKey().getStoreName() + '\0' + last.getPriceDate());
+    }
+
+    /**
+     * Writes every product row as newline-delimited JSON. Rows are read through a database cursor
+     * and detached once written, so memory use does not depend on the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out) throws IOException {
+        try (Stream<Product> rows = productRepository.streamAll()) {
+            int written = 0;
+            for (Product p : (Iterable<Product>) rows::iterator) {
+                out.write(objectMapper.writeValueAsBytes(p));
+                out.write('\n');
+                entityManager.detach(p);
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        }
+    }
 }
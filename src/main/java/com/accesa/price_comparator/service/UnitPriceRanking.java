@@ -0,0 +1,203 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.IndexStats;
+import com.accesa.price_comparator.event.LatestPriceChange;
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Products ranked by their best current unit price, one ranking per category and unit dimension
+ * (price per kg, per l, per piece, ...). Prices of different dimensions are never compared.
+ * <p>
+ * A product's unit price is the lowest {@code price / normalized quantity} over the stores selling it.
+ * The ranking is updated incrementally from {@link LatestPricesChangedEvent}s, so the best
+ * alternative is the head of a sorted set and the top N alternatives cost O(log n + N).
+ */
+@Component
+public class UnitPriceRanking implements InMemoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UnitPriceRanking.class);
+
+    private static final Comparator<Entry> BY_UNIT_PRICE =
+            Comparator.comparingDouble(Entry::unitPrice).thenComparing(Entry::productId);
+
+    private final ProductRepository productRepo;
+    private final LatestPriceIndex latestPriceIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ranking key (category + dimension) -> entries ordered by unit price
+    private final Map<String, NavigableSet<Entry>> rankings = new HashMap<>();
+    private final Map<String, Entry> byProduct = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long lastRebuildMillis;
+
+    /**
+     * A ranked product.
+     *
+     * @param product the store snapshot that gives the best unit price
+     */
+    private record Entry(String productId, String rankingKey, double unitPrice, Product product) {
+    }
+
+    public UnitPriceRanking(ProductRepository productRepo, LatestPriceIndex latestPriceIndex) {
+        this.productRepo = productRepo;
+        this.latestPriceIndex = latestPriceIndex;
+    }
+
+    @Override
+    public String name() {
+        return "unit-price-ranking";
+    }
+
+    @Override
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, List<Product>> snapshotsById = new HashMap<>();
+        for (Product p : productRepo.findLatestSnapshots()) {
+            if (p.getId() != null) {
+                snapshotsById.computeIfAbsent(p.getId(), id -> new ArrayList<>()).add(p);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            rankings.clear();
+            byProduct.clear();
+            snapshotsById.forEach(this::update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Unit-price ranking built: {} products in {} rankings in {} ms",
+                byProduct.size(), rankings.size(), lastRebuildMillis);
+    }
+
+    @EventListener
+    public void onLatestPricesChanged(LatestPricesChangedEvent event) {
+        Set<String> productIds = new LinkedHashSet<>();
+        event.changes().stream().map(LatestPriceChange::productId).forEach(productIds::add);
+        Map<String, List<Product>> current = new HashMap<>();
+        productIds.forEach(id -> current.put(id, latestPriceIndex.latestPrices(id)));
+        lock.writeLock().lock();
+        try {
+            current.forEach(this::update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The product with the lowest unit price in the same category and dimension,
+     * or {@code null} if the product is unknown or already the cheapest per unit.
+     */
+    public Product bestAlternative(String productId) {
+        List<Product> top = alternatives(productId, 1);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /** Up to {@code n} products of the same category and dimension with a lower unit price, cheapest first. */
+    public List<Product> alternatives(String productId, int n) {
+        lock.readLock().lock();
+        try {
+            Entry reference = byProduct.get(productId);
+            if (reference == null) {
+                misses.increment();
+                return List.of();
+            }
+            hits.increment();
+            List<Product> result = new ArrayList<>();
+            Iterator<Entry> cheaper = rankings.get(reference.rankingKey()).headSet(reference, false).iterator();
+            while (cheaper.hasNext() && result.size() < n) {
+                Entry next = cheaper.next();
+                if (next.unitPrice() < reference.unitPrice()) {
+                    result.add(next.product());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public IndexStats stats() {
+        lock.readLock().lock();
+        try {
+            return IndexStats.of(name(), byProduct.size(), hits.sum(), misses.sum(), lastRebuildMillis);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Price per base unit: grams and millilitres are converted to kg and l, pieces (buc, pcs, ...)
+     * to a single unit; other units are used as they are. Returns -1 for unusable quantities.
+     */
+    static double unitPrice(double price, double quantity, String unit) {
+        double qty = quantity * factor(unit);
+        if (qty <= 0 || price <= 0) return -1;
+        return price / qty;
+    }
+
+    /** The base unit a package unit is normalized to, e.g. {@code g -> kg}, {@code buc -> pcs}. */
+    static String dimension(String unit) {
+        String u = unit == null ? "" : unit.trim().toLowerCase();
+        return switch (u) {
+            case "g", "kg" -> "kg";
+            case "ml", "l" -> "l";
+            case "buc", "pcs", "pc", "bucata", "role" -> "pcs";
+            default -> u;
+        };
+    }
+
+    private static double factor(String unit) {
+        String u = unit == null ? "" : unit.trim().toLowerCase();
+        return switch (u) {
+            case "g", "ml" -> 0.001;
+            default -> 1.0;
+        };
+    }
+
+    // Caller holds the write lock; replaces the product's entry using its current store snapshots
+    private void update(String productId, List<Product> snapshots) {
+        Entry previous = byProduct.remove(productId);
+        if (previous != null) {
+            NavigableSet<Entry> ranking = rankings.get(previous.rankingKey());
+            ranking.remove(previous);
+            if (ranking.isEmpty()) rankings.remove(previous.rankingKey());
+        }
+        Entry best = null;
+        for (Product p : snapshots) {
+            if (p.getProductCategory() == null) continue;
+            double unitPrice = unitPrice(p.getPrice(), p.getPackageQuantity(), p.getPackageUnit());
+            if (unitPrice < 0) continue;
+            if (best == null || unitPrice < best.unitPrice()) {
+                String key = p.getProductCategory().trim().toLowerCase() + '|' + dimension(p.getPackageUnit());
+                best = new Entry(productId, key, unitPrice, p);
+            }
+        }
+        if (best == null) return;
+        byProduct.put(productId, best);
+        rankings.computeIfAbsent(best.rankingKey(), k -> new TreeSet<>(BY_UNIT_PRICE)).add(best);
+    }
+}
@@ -0,0 +1,9 @@
+-- Price date of the feed row the catalog attributes were taken from, so a batch of older rows that commits after
+-- a newer one does not overwrite them (the catalog upsert only moves forward, like product_latest_price).
+-- Null for entries written through JPA, which the next import replaces.
+alter table product_catalog add column last_price_date date;
+
+update product_catalog c
+set last_price_date = p.last_price_date
+from (select id, max(price_date) as last_price_date from product group by id) p
+where p.id = c.id;
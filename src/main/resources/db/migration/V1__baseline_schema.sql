@@ -0,0 +1,43 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate), so this only runs on empty ones.
+
+create table if not exists store (
+    name varchar(255) not null primary key
+);
+
+create table if not exists product (
+    id               varchar(255) not null,
+    store_name       varchar(255) not null references store (name),
+    price_date       date         not null,
+    product_name     varchar(255),
+    product_category varchar(255),
+    brand            varchar(255),
+    package_quantity float(53)    not null,
+    package_unit     varchar(255),
+    price            float(53)    not null,
+    currency         varchar(255),
+    primary key (id, store_name, price_date),
+    unique (id, store_name, price_date)
+);
+
+create table if not exists discount (
+    id                     bigint generated by default as identity primary key,
+    product_id             varchar(255),
+    product_name           varchar(255),
+    brand                  varchar(255),
+    package_quantity       float(53)    not null,
+    package_unit           varchar(255),
+    product_category       varchar(255),
+    from_date              date,
+    to_date                date,
+    percentage_of_discount integer      not null,
+    store_name             varchar(255) not null references store (name),
+    price_date             date
+);
+
+create table if not exists price_alert (
+    id           bigint generated by default as identity primary key,
+    product_id   bigint,
+    target_price float(53) not null,
+    triggered    boolean   not null
+);
@@ -0,0 +1,29 @@
+-- Schema the feed ingestion and the latest-price index need on top of the baseline (V1 is what Hibernate
+-- generated, and is skipped for databases baselined at version 1):
+--   discount: one row per (product, store, start date), the key the ingest upserts on
+--   product_latest_price: the current price per product and store (created by ddl-auto=update on databases
+--                         that ran the latest-price index before Flyway; filled at startup when empty)
+
+-- keep the newest copy of a discount imported more than once
+delete from discount d
+using discount newer
+where newer.product_id = d.product_id
+  and newer.store_name = d.store_name
+  and newer.from_date = d.from_date
+  and newer.id > d.id;
+
+alter table discount add constraint discount_product_store_from_key unique (product_id, store_name, from_date);
+
+create table if not exists product_latest_price (
+    product_id       varchar(255) not null,
+    store_name       varchar(255) not null,
+    price_date       date,
+    product_name     varchar(255),
+    product_category varchar(255),
+    brand            varchar(255),
+    package_quantity float(53)    not null,
+    package_unit     varchar(255),
+    price            float(53)    not null,
+    currency         varchar(255),
+    primary key (product_id, store_name)
+);
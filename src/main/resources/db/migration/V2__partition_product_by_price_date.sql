@@ -0,0 +1,22 @@
+-- Range-partitions the price history by price_date (one partition per year, plus a default one).
+-- The primary key (id, store_name, price_date) contains the partition key, so it stays unique across partitions
+-- and still serves "history of a product in a store, newest first".
+
+alter table product rename to product_unpartitioned;
+alter index if exists product_pkey rename to product_unpartitioned_pkey;
+
+create table product (like product_unpartitioned including defaults) partition by range (price_date);
+alter table product add constraint product_pkey primary key (id, store_name, price_date);
+alter table product add constraint product_store_fk foreign key (store_name) references store (name);
+
+do $$
+begin
+    for y in 2020..2030 loop
+        execute format('create table product_y%s partition of product for values from (%L) to (%L)',
+                       y, make_date(y, 1, 1), make_date(y + 1, 1, 1));
+    end loop;
+end $$;
+create table product_default partition of product default;
+
+insert into product select * from product_unpartitioned;
+drop table product_unpartitioned;
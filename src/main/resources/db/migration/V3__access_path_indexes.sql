@@ -0,0 +1,19 @@
+-- Indexes for the repository access paths (created on the partitioned parent, inherited by every partition).
+create extension if not exists pg_trgm;
+
+-- product: exact name lookups, case-insensitive "name contains" search, category filters.
+-- (id, store_name) order by price_date desc is served by the primary key.
+create index if not exists idx_product_name on product (product_name);
+create index if not exists idx_product_name_trgm on product using gin (lower(product_name) gin_trgm_ops);
+create index if not exists idx_product_category on product (lower(product_category));
+
+-- product_latest_price: "current offers" by category / name (lookups by product id use the primary key)
+create index if not exists idx_latest_price_category on product_latest_price (lower(product_category));
+create index if not exists idx_latest_price_name_trgm on product_latest_price using gin (lower(product_name) gin_trgm_ops);
+
+-- discount: active on a date (from_date <= d and to_date >= d), started after a date, not yet expired
+create index if not exists idx_discount_from_to on discount (from_date, to_date);
+create index if not exists idx_discount_to_date on discount (to_date);
+
+-- price_alert: only untriggered alerts are ever looked up
+create index if not exists idx_price_alert_pending on price_alert (product_id, target_price) where triggered = false;
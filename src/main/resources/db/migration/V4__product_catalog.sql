@@ -0,0 +1,59 @@
+-- Splits the descriptive product attributes off the price history:
+--   product_catalog: one row per product code (name, category, brand, package, currency)
+--   product:         one slim row per (code, store, date) with the price only
+-- The catalog takes the attributes of each code's newest history row. The history is copied into a new
+-- partitioned table (dropping columns in place would keep the old row size until every partition is rewritten).
+
+create table product_catalog (
+    id               varchar(255) not null primary key,
+    product_name     varchar(255),
+    product_category varchar(255),
+    brand            varchar(255),
+    package_quantity float(53)    not null,
+    package_unit     varchar(255),
+    currency         varchar(255)
+);
+
+insert into product_catalog (id, product_name, product_category, brand, package_quantity, package_unit, currency)
+select distinct on (id) id, product_name, product_category, brand, package_quantity, package_unit, currency
+from product
+order by id, price_date desc;
+
+create table product_slim (
+    id         varchar(255) not null,
+    store_name varchar(255) not null,
+    price_date date         not null,
+    price      float(53)    not null
+) partition by range (price_date);
+
+do $$
+begin
+    for y in 2020..2030 loop
+        execute format('create table product_slim_y%s partition of product_slim for values from (%L) to (%L)',
+                       y, make_date(y, 1, 1), make_date(y + 1, 1, 1));
+    end loop;
+end $$;
+create table product_slim_default partition of product_slim default;
+
+insert into product_slim (id, store_name, price_date, price)
+select id, store_name, price_date, price from product;
+
+drop table product;
+
+alter table product_slim rename to product;
+do $$
+begin
+    for y in 2020..2030 loop
+        execute format('alter table product_slim_y%s rename to product_y%s', y, y);
+    end loop;
+end $$;
+alter table product_slim_default rename to product_default;
+
+alter table product add constraint product_pkey primary key (id, store_name, price_date);
+alter table product add constraint product_store_fk foreign key (store_name) references store (name);
+alter table product add constraint product_catalog_fk foreign key (id) references product_catalog (id);
+
+-- name / category lookups now go to the catalog (they were on product, see V3)
+create index idx_product_catalog_name on product_catalog (product_name);
+create index idx_product_catalog_name_trgm on product_catalog using gin (lower(product_name) gin_trgm_ops);
+create index idx_product_catalog_category on product_catalog (lower(product_category));
@@ -0,0 +1,30 @@
+-- Best-price reports written by BestPriceReportJob, one set of rows per report date (a re-run replaces it).
+
+-- per product: cheapest store, unit price and the discount-adjusted (effective) cheapest offer
+create table best_price_report (
+    report_date         date         not null,
+    product_id          varchar(255) not null,
+    product_name        varchar(255),
+    product_category    varchar(255),
+    store_count         integer      not null,
+    cheapest_store      varchar(255) not null,
+    cheapest_price      float(53)    not null,
+    unit_price          float(53),
+    unit                varchar(255),
+    effective_store     varchar(255) not null,
+    effective_price     float(53)    not null,
+    discount_percentage integer      not null,
+    constraint best_price_report_pkey primary key (report_date, product_id)
+);
+
+-- per category and unit dimension (kg, l, pcs, ...): the product with the lowest effective unit price
+create table category_best_value_report (
+    report_date          date         not null,
+    product_category     varchar(255) not null,
+    unit                 varchar(255) not null,
+    product_id           varchar(255) not null,
+    product_name         varchar(255),
+    store_name           varchar(255) not null,
+    effective_unit_price float(53)    not null,
+    constraint category_best_value_report_pkey primary key (report_date, product_category, unit)
+);
@@ -0,0 +1,12 @@
+-- price_alert keys on the product code ("P001") like every other table, so alerts join against prices,
+-- and can be limited to one store (store_name null = any store).
+-- Existing numeric ids become the code the alert engine matched them against ('P' + at least 3 digits).
+drop index if exists idx_price_alert_pending;
+
+alter table price_alert alter column product_id type varchar(255)
+    using 'P' || case when product_id < 100 then lpad(product_id::text, 3, '0') else product_id::text end;
+alter table price_alert add column store_name varchar(255);
+alter table price_alert add constraint price_alert_store_fk foreign key (store_name) references store (name);
+
+-- alerts of a product still waiting for a price <= target: (product_id = ? and not triggered and target_price >= ?)
+create index idx_price_alert_product_triggered_target on price_alert (product_id, triggered, target_price);
@@ -0,0 +1,22 @@
+-- product_latest_price keeps only the current price per (product, store); name, category, brand, package
+-- and currency are read from product_catalog, so the two can no longer disagree.
+-- The table is copied (dropping the columns in place would keep the old row size until every row is rewritten);
+-- its name / category indexes go with the old table, lookups by product id use the primary key.
+
+create table product_latest_price_slim (
+    product_id varchar(255) not null,
+    store_name varchar(255) not null,
+    price_date date,
+    price      float(53)    not null
+);
+
+insert into product_latest_price_slim (product_id, store_name, price_date, price)
+select product_id, store_name, price_date, price
+from product_latest_price;
+
+drop table product_latest_price;
+alter table product_latest_price_slim rename to product_latest_price;
+
+alter table product_latest_price add constraint product_latest_price_pkey primary key (product_id, store_name);
+alter table product_latest_price add constraint product_latest_price_catalog_fk
+    foreign key (product_id) references product_catalog (id);
@@ -0,0 +1,28 @@
+-- Version of the data the price snapshot (PriceSnapshotFile) is built from: every statement that changes the
+-- stores, the catalog, the price history or the latest prices takes a new value. The snapshot header keeps the
+-- version it was written at; a snapshot whose version is no longer current is not restored.
+
+create sequence price_data_version;
+
+create function bump_price_data_version() returns trigger language plpgsql as $$
+begin
+    perform nextval('price_data_version');
+    return null;
+end
+$$;
+
+create trigger store_price_data_version
+    after insert or update or delete or truncate on store
+    for each statement execute function bump_price_data_version();
+
+create trigger product_catalog_price_data_version
+    after insert or update or delete or truncate on product_catalog
+    for each statement execute function bump_price_data_version();
+
+create trigger product_price_data_version
+    after insert or update or delete or truncate on product
+    for each statement execute function bump_price_data_version();
+
+create trigger product_latest_price_price_data_version
+    after insert or update or delete or truncate on product_latest_price
+    for each statement execute function bump_price_data_version();
@@ -0,0 +1,5 @@
+-- Indexes no query uses any more: name search runs on the in-memory ProductSearchIndex.
+-- (idx_latest_price_name_trgm and idx_latest_price_category went with the product_latest_price copy in V7.)
+drop index if exists idx_product_catalog_name_trgm;
+drop index if exists idx_latest_price_name_trgm;
+drop index if exists idx_latest_price_category;
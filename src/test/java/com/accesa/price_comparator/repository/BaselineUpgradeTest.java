@@ -0,0 +1,113 @@
+package com.accesa.price_comparator.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Upgrades a database created by Hibernate before Flyway (the V1 schema, with data) the way the application
+ * does it: baselined at version 1 ({@code spring.flyway.baseline-on-migrate}), then every later migration.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BaselineUpgradeTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static MigrateResult result;
+
+    @BeforeAll
+    static void createBaselineAndMigrate() throws SQLException, IOException {
+        try (Connection con = connect(); Statement st = con.createStatement()) {
+            st.execute(baselineSchema());
+            st.execute("insert into store (name) values ('Lidl'), ('Profi')");
+            st.execute("insert into product (id, store_name, price_date, product_name, product_category, brand, " +
+                    "package_quantity, package_unit, price, currency) values " +
+                    "('P001', 'Lidl', date '2025-05-01', 'lapte', 'lactate', 'Zuzu', 1, 'l', 9.9, 'RON'), " +
+                    "('P001', 'Lidl', date '2025-05-08', 'lapte zuzu', 'lactate', 'Zuzu', 1, 'l', 9.5, 'RON'), " +
+                    "('P001', 'Profi', date '2025-05-08', 'lapte zuzu', 'lactate', 'Zuzu', 1, 'l', 10.2, 'RON'), " +
+                    "('P002', 'Profi', date '2024-03-01', 'paine', 'panificatie', 'Vel Pitar', 1, 'buc', 3, 'RON')");
+            // the same discount imported twice (nothing prevented it before the ingest upserted on its key)
+            st.execute("insert into discount (product_id, product_name, brand, package_quantity, package_unit, " +
+                    "product_category, from_date, to_date, percentage_of_discount, store_name, price_date) values " +
+                    "('P001', 'lapte zuzu', 'Zuzu', 1, 'l', 'lactate', date '2025-05-01', date '2025-05-07', 10, " +
+                    "'Lidl', date '2025-05-01'), " +
+                    "('P001', 'lapte zuzu', 'Zuzu', 1, 'l', 'lactate', date '2025-05-01', date '2025-05-07', 15, " +
+                    "'Lidl', date '2025-05-01')");
+            st.execute("insert into price_alert (product_id, target_price, triggered) values (1, 9.0, false), " +
+                    "(2, 2.5, true)");
+        }
+        result = Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    void everyMigrationAfterTheBaselineRuns() throws SQLException {
+        assertTrue(result.success);
+        assertEquals("1", queryString("select version from flyway_schema_history where type = 'BASELINE'"));
+        assertEquals(0, queryInt("select count(*) from flyway_schema_history where not success"));
+    }
+
+    @Test
+    void historyKeepsItsRowsAndTheCatalogTakesTheNewestAttributes() throws SQLException {
+        assertEquals(4, queryInt("select count(*) from product"));
+        assertEquals("lapte zuzu", queryString("select product_name from product_catalog where id = 'P001'"));
+        assertEquals("2025-05-08", queryString("select last_price_date from product_catalog where id = 'P001'"));
+        assertEquals(2, queryInt("select count(*) from product_catalog"));
+    }
+
+    @Test
+    void discountsAreKeyedOnProductStoreAndStartDate() throws SQLException {
+        assertEquals(15, queryInt("select percentage_of_discount from discount"));
+        assertEquals(1, queryInt("select count(*) from pg_constraint " +
+                "where conname = 'discount_product_store_from_key' and contype = 'u'"));
+    }
+
+    @Test
+    void latestPriceTableAndAlertCodesExist() throws SQLException {
+        assertEquals(4, queryInt("select count(*) from information_schema.columns " +
+                "where table_name = 'product_latest_price'"));
+        assertEquals("P001", queryString("select product_id from price_alert where target_price = 9.0"));
+    }
+
+    private static String baselineSchema() throws IOException {
+        try (InputStream in = BaselineUpgradeTest.class.getResourceAsStream("/db/migration/V1__baseline_schema.sql")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int queryInt(String sql) throws SQLException {
+        return Integer.parseInt(queryString(sql));
+    }
+
+    private static String queryString(String sql) throws SQLException {
+        try (Connection con = connect(); Statement st = con.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
@@ -0,0 +1,253 @@
+package com.accesa.price_comparator.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations on a real PostgreSQL, loads a dataset shaped like production (a few stores,
+ * months of daily prices, two years of weekly discounts, mostly triggered alerts), analyzes it and checks
+ * the plans of the repository queries with EXPLAIN ANALYZE under the default planner settings.
+ * The JDBC repositories' statements are used as is; the JPA queries are written as Hibernate renders them.
+ * Lookups must not scan a large table sequentially; full reads must read every large table once.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryIndexUsageTest {
+
+    // tables with fewer rows (stores, empty partitions) may be scanned sequentially
+    private static final int LARGE_TABLE_ROWS = 1000;
+    private static final Pattern SEQ_SCAN =
+            Pattern.compile("(Parallel )?Seq Scan on (\\w+).*?(?:loops=(\\d+)|never executed)");
+
+    private static final String PRODUCT_COLUMNS = "p1_0.id,p1_0.price_date,p1_0.store_name,p1_0.price";
+    private static final String CATALOG_COLUMNS = "c1_0.id,c1_0.brand,c1_0.currency,c1_0.package_quantity," +
+            "c1_0.package_unit,c1_0.product_category,c1_0.product_name";
+    private static final String DISCOUNT_COLUMNS = "d1_0.id,d1_0.brand,d1_0.from_date,d1_0.package_quantity," +
+            "d1_0.package_unit,d1_0.percentage_of_discount,d1_0.price_date,d1_0.product_category,d1_0.product_id," +
+            "d1_0.product_name,d1_0.store_name,d1_0.to_date";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void migrateAndLoad() throws SQLException {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+        try (Connection con = connect(); Statement st = con.createStatement()) {
+            st.execute("insert into store (name) values ('Lidl'), ('Kaufland'), ('Profi')");
+            st.execute("insert into product_catalog (id, product_name, product_category, brand, package_quantity, " +
+                    "package_unit, currency) " +
+                    "select 'P' || lpad(i::text, 4, '0'), 'lapte zuzu ' || i, 'categorie ' || i % 40, 'Zuzu', 1, " +
+                    "'l', 'RON' from generate_series(1, 6000) i");
+            // 40 daily prices per product and store across the 2024 / 2025 partitions, stored day by day
+            // as the feeds arrive
+            st.execute("insert into product (id, store_name, price_date, price) " +
+                    "select 'P' || lpad(i::text, 4, '0'), s.name, date '2024-12-10' + d, 5 + (i + d) % 7 " +
+                    "from generate_series(1, 6000) i, generate_series(0, 39) d, store s order by d, i, s.name");
+            st.execute("insert into product_latest_price select distinct on (id, store_name) id, store_name, " +
+                    "price_date, price from product order by id, store_name, price_date desc");
+            // week-long discounts starting on every day of 2024 and 2025, stored in the order they were announced
+            st.execute("insert into discount (product_id, product_name, brand, package_quantity, package_unit, " +
+                    "product_category, from_date, to_date, percentage_of_discount, store_name, price_date) " +
+                    "select 'P' || lpad((i % 6000 + 1)::text, 4, '0'), 'lapte zuzu', 'Zuzu', 1, 'l', 'lactate', " +
+                    "date '2024-01-01' + i * 730 / 20000, date '2024-01-08' + i * 730 / 20000, 10 + i % 20, " +
+                    "(array['Lidl', 'Kaufland', 'Profi'])[i % 3 + 1], date '2024-01-01' + i * 730 / 20000 " +
+                    "from generate_series(0, 19999) i");
+            // nine in ten alerts have been triggered already
+            st.execute("insert into price_alert (product_id, store_name, target_price, triggered) " +
+                    "select 'P' || lpad((i % 6000 + 1)::text, 4, '0'), case when i % 3 = 0 then 'Lidl' end, " +
+                    "4 + i % 5, i % 10 <> 0 from generate_series(1, 30000) i");
+            st.execute("analyze");
+        }
+    }
+
+    @Test
+    void productIsPartitionedByPriceDate() throws SQLException {
+        try (Connection con = connect(); Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("select count(*) from pg_inherits where inhparent = 'product'::regclass")) {
+            rs.next();
+            assertTrue(rs.getInt(1) > 1, "product should have partitions");
+        }
+    }
+
+    @Test
+    void historyRowsOnlyCarryThePrice() throws SQLException {
+        assertEquals(4, columnCount("product"), "product should only have id, store_name, price_date and price");
+    }
+
+    @Test
+    void latestPricesOnlyCarryThePrice() throws SQLException {
+        assertEquals(4, columnCount("product_latest_price"),
+                "product_latest_price should only have product_id, store_name, price_date and price");
+    }
+
+    /** {@code ProductRepository.findLatestSnapshots}, read by every price index at startup. */
+    @Test
+    void latestSnapshotsJoinTheHistoryOnce() throws SQLException {
+        String plan = plan("select " + PRODUCT_COLUMNS + "," + CATALOG_COLUMNS + " from product p1_0 " +
+                "join product_catalog c1_0 on c1_0.id=p1_0.id " +
+                "join product_latest_price l1_0 on l1_0.product_id=p1_0.id and l1_0.store_name=p1_0.store_name " +
+                "and l1_0.price_date=p1_0.price_date");
+        assertLargeTablesReadOnce(plan);
+        assertFalse(plan.contains("SubPlan") || plan.contains("Aggregate"), "no lookup per group:\n" + plan);
+    }
+
+    /** {@code ProductRepository.findByKeyIdAfter}: a keyset page of one product's history. */
+    @Test
+    void keysetPageOfProductHistory() throws SQLException {
+        String plan = plan("select " + PRODUCT_COLUMNS + " from product p1_0 where p1_0.id='P0042' and " +
+                "(p1_0.store_name>'Kaufland' or (p1_0.store_name='Kaufland' and p1_0.price_date>date '2024-12-20')) " +
+                "order by p1_0.store_name,p1_0.price_date fetch first 21 rows only");
+        assertNoSeqScanOfLargeTables(plan);
+        assertTrue(plan.contains("product_y2025_pkey"), "primary key not used:\n" + plan);
+    }
+
+    /** {@code ProductRepository.findByKeyId}. */
+    @Test
+    void historyOfProduct() throws SQLException {
+        assertNoSeqScanOfLargeTables(plan("select " + PRODUCT_COLUMNS + " from product p1_0 where p1_0.id='P0042'"));
+    }
+
+    /** {@code ProductRepository.findByKeyIdAndKeyStoreName}, used when discounts are loaded. */
+    @Test
+    void historyOfProductInStore() throws SQLException {
+        assertNoSeqScanOfLargeTables(plan("select " + PRODUCT_COLUMNS + " from product p1_0 " +
+                "where p1_0.id='P0042' and p1_0.store_name='Lidl'"));
+    }
+
+    /** {@code ProductRepository.findTopByKeyIdOrderByKeyPriceDateDesc}. */
+    @Test
+    void newestRowOfProduct() throws SQLException {
+        assertNoSeqScanOfLargeTables(plan("select " + PRODUCT_COLUMNS + " from product p1_0 " +
+                "where p1_0.id='P0042' order by p1_0.price_date desc fetch first 1 rows only"));
+    }
+
+    /** {@code ProductRepository.findByProductName}. */
+    @Test
+    void productByName() throws SQLException {
+        String plan = plan("select " + PRODUCT_COLUMNS + "," + CATALOG_COLUMNS + " from product p1_0 " +
+                "join product_catalog c1_0 on c1_0.id=p1_0.id where c1_0.product_name='lapte zuzu 42'");
+        assertNoSeqScanOfLargeTables(plan);
+        assertTrue(plan.contains("idx_product_catalog_name"), "name index not used:\n" + plan);
+    }
+
+    /** {@code LatestPriceRepository.findByKeyProductIdIn} (with the catalog entity graph). */
+    @Test
+    void latestPricesForManyProducts() throws SQLException {
+        assertNoSeqScanOfLargeTables(plan("select l1_0.product_id,l1_0.store_name," + CATALOG_COLUMNS +
+                ",l1_0.price,l1_0.price_date from product_latest_price l1_0 " +
+                "join product_catalog c1_0 on c1_0.id=l1_0.product_id " +
+                "where l1_0.product_id in ('P0001','P0002','P0003')"));
+    }
+
+    /** {@code DiscountRepository.findByToDateGreaterThanEqual}: the discount index loads the unexpired ones. */
+    @Test
+    void discountsNotExpired() throws SQLException {
+        String plan = plan("select " + DISCOUNT_COLUMNS + " from discount d1_0 where d1_0.to_date>=date '2025-12-20'");
+        assertNoSeqScanOfLargeTables(plan);
+        assertTrue(plan.contains("idx_discount_to_date"), "to_date index not used:\n" + plan);
+    }
+
+    /** {@code DiscountRepository.findByFromDateAfter}. */
+    @Test
+    void discountsStartedAfter() throws SQLException {
+        String plan = plan("select " + DISCOUNT_COLUMNS + " from discount d1_0 where d1_0.from_date>date '2025-12-20'");
+        assertNoSeqScanOfLargeTables(plan);
+        assertTrue(plan.contains("idx_discount_from_to"), "from_date index not used:\n" + plan);
+    }
+
+    /** {@link PriceAlertJdbcRepository#TRIGGER_SATISFIED}, run when the alert engine is rebuilt. */
+    @Test
+    void satisfiedAlertsAreTriggeredInOnePass() throws SQLException {
+        String plan = plan(PriceAlertJdbcRepository.TRIGGER_SATISFIED);
+        assertLargeTablesReadOnce(plan);
+        assertFalse(plan.contains("on product_y"), "the price history should not be read:\n" + plan);
+    }
+
+    /** {@link BestPriceReportJdbcRepository#SELECT_LATEST_PRICES}, streamed by the report job. */
+    @Test
+    void reportStreamReadsTheCurrentPricesOnce() throws SQLException {
+        String plan = plan(BestPriceReportJdbcRepository.SELECT_LATEST_PRICES);
+        assertLargeTablesReadOnce(plan);
+        assertFalse(plan.contains("on product_y"), "the price history should not be read:\n" + plan);
+    }
+
+    private static void assertNoSeqScanOfLargeTables(String plan) throws SQLException {
+        Matcher m = SEQ_SCAN.matcher(plan);
+        while (m.find()) {
+            assertTrue(rowCount(m.group(2)) < LARGE_TABLE_ROWS, "sequential scan of " + m.group(2) + ":\n" + plan);
+        }
+    }
+
+    // a sequential scan of a large table is fine for a full read, but only once (not per row of another table)
+    private static void assertLargeTablesReadOnce(String plan) throws SQLException {
+        Matcher m = SEQ_SCAN.matcher(plan);
+        while (m.find()) {
+            boolean parallel = m.group(1) != null;  // loops counts the workers, each reads a part
+            if (!parallel && m.group(3) != null && rowCount(m.group(2)) >= LARGE_TABLE_ROWS) {
+                assertEquals("1", m.group(3), "repeated sequential scan of " + m.group(2) + ":\n" + plan);
+            }
+        }
+    }
+
+    // EXPLAIN ANALYZE in a transaction that is rolled back, so updates leave the data as it is
+    private static String plan(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection con = connect()) {
+            con.setAutoCommit(false);
+            try (Statement st = con.createStatement();
+                 ResultSet rs = st.executeQuery("explain (analyze, costs off, timing off, summary off) " + sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            } finally {
+                con.rollback();
+            }
+        }
+        return plan.toString();
+    }
+
+    private static long rowCount(String table) throws SQLException {
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement("select reltuples from pg_class where relname = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static int columnCount(String table) throws SQLException {
+        try (Connection con = connect();
+             PreparedStatement ps = con.prepareStatement(
+                     "select count(*) from information_schema.columns where table_name = ?")) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
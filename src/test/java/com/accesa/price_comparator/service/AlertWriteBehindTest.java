@@ -0,0 +1,120 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.model.PriceAlert;
+import com.accesa.price_comparator.repository.PriceAlertJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertWriteBehindTest {
+
+    @Test
+    void coalescesQueuedChangesAndWritesThemAtShutdown() throws InterruptedException {
+        List<List<PriceAlert>> batches = new ArrayList<>();
+        AlertWriteBehind writeBehind = new AlertWriteBehind(recording(batches), 100, 1000, 60_000, 1000);
+        writeBehind.start();
+
+        PriceAlert alert = PriceAlert.builder().id(writeBehind.newId()).productId("P001").targetPrice(9.5).build();
+        writeBehind.enqueue(alert);
+        alert.setTriggered(true);
+        writeBehind.enqueue(alert);
+        PriceAlert other = PriceAlert.builder().id(writeBehind.newId()).productId("P002").targetPrice(4.0).build();
+        writeBehind.enqueue(other);
+
+        assertTrue(writeBehind.find(alert.getId()).orElseThrow().isTriggered());
+        assertEquals(List.of(other.getId()), writeBehind.withUnwritten(List.of()).stream().map(PriceAlert::getId).toList());
+
+        writeBehind.shutdown();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertTrue(batches.get(0).get(0).isTriggered());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void anAlertTheDatabaseRejectsDoesNotHoldUpTheRestOfItsBatch() throws InterruptedException {
+        List<List<PriceAlert>> batches = new ArrayList<>();
+        AlertWriteBehind writeBehind = new AlertWriteBehind(rejecting(batches, 3L), 100, 1000, 60_000, 1000);
+        writeBehind.start();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            long id = writeBehind.newId();
+            ids.add(id);
+            writeBehind.enqueue(PriceAlert.builder().id(id).productId("P00" + i).storeName("lidl").targetPrice(5).build());
+        }
+
+        writeBehind.shutdown();
+        List<Long> written = batches.stream().flatMap(List::stream).map(PriceAlert::getId).toList();
+        assertEquals(List.of(1L, 2L, 4L, 5L), written);
+        assertEquals(ids.size() - 1, written.size());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    @Test
+    void aFailedBatchIsRetriedWhenTheDatabaseIsBack() throws InterruptedException {
+        List<List<PriceAlert>> batches = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger(2);
+        PriceAlertJdbcRepository flaky = new PriceAlertJdbcRepository(null) {
+            private long nextId = 1;
+
+            @Override
+            public List<Long> reserveIds(int count) {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < count; i++) ids.add(nextId++);
+                return ids;
+            }
+
+            @Override
+            public void upsert(Collection<PriceAlert> alerts) {
+                if (failures.getAndDecrement() > 0) throw new IllegalStateException("connection refused");
+                batches.add(new ArrayList<>(alerts));
+            }
+        };
+        AlertWriteBehind writeBehind = new AlertWriteBehind(flaky, 100, 1000, 10, 1000);
+        writeBehind.start();
+        writeBehind.enqueue(PriceAlert.builder().id(writeBehind.newId()).productId("P001").targetPrice(5).build());
+        writeBehind.enqueue(PriceAlert.builder().id(writeBehind.newId()).productId("P002").targetPrice(5).build());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writeBehind.pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writeBehind.shutdown();
+        assertEquals(List.of(1L, 2L), batches.stream().flatMap(List::stream).map(PriceAlert::getId).toList());
+        assertEquals(0, writeBehind.pendingCount());
+    }
+
+    private static PriceAlertJdbcRepository recording(List<List<PriceAlert>> batches) {
+        return rejecting(batches, null);
+    }
+
+    // records the written batches; a batch containing the rejected id fails like a foreign key violation
+    private static PriceAlertJdbcRepository rejecting(List<List<PriceAlert>> batches, Long rejectedId) {
+        return new PriceAlertJdbcRepository(null) {
+            private long nextId = 1;
+
+            @Override
+            public List<Long> reserveIds(int count) {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < count; i++) ids.add(nextId++);
+                return ids;
+            }
+
+            @Override
+            public void upsert(Collection<PriceAlert> alerts) {
+                if (alerts.stream().anyMatch(a -> a.getId().equals(rejectedId))) {
+                    throw new DataIntegrityViolationException("violates foreign key constraint \"price_alert_store_fk\"");
+                }
+                batches.add(new ArrayList<>(alerts));
+            }
+        };
+    }
+}
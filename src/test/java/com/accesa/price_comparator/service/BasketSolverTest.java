@@ -0,0 +1,78 @@
+package com.accesa.price_comparator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static com.accesa.price_comparator.service.BasketSolver.NOT_SOLD;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BasketSolverTest {
+
+    private static final long BUDGET = 40_000_000L;
+
+    // items x stores
+    private static final double[][] PRICES = {
+            {10, 12, NOT_SOLD},
+            {5, 4, 6},
+            {NOT_SOLD, 3, 2},
+    };
+
+    @Test
+    void unlimitedStoresBuysEveryItemAtItsCheapestStore() {
+        BasketSolver.Result result = new BasketSolver(PRICES, 0, 0, BUDGET).solve();
+        assertArrayEquals(new int[]{0, 1, 2}, result.storeOfItem());
+        assertTrue(result.optimal());
+    }
+
+    @Test
+    void storeLimitPicksTheCheapestSingleStoreThatCoversTheBasket() {
+        BasketSolver.Result result = new BasketSolver(PRICES, 1, 0, BUDGET).solve();
+        assertArrayEquals(new int[]{1, 1, 1}, result.storeOfItem());
+    }
+
+    @Test
+    void visitCostConsolidatesTheBasket() {
+        // 3 stores cost 10+4+2 = 16 items + 3 visits; store 1 alone costs 19 + 1 visit
+        BasketSolver.Result result = new BasketSolver(PRICES, 0, 5, BUDGET).solve();
+        assertArrayEquals(new int[]{1, 1, 1}, result.storeOfItem());
+    }
+
+    @Test
+    void itemsThatCannotBeCoveredWithinTheLimitAreLeftUnassigned() {
+        double[][] prices = {
+                {1, NOT_SOLD},
+                {NOT_SOLD, 1},
+        };
+        BasketSolver.Result result = new BasketSolver(prices, 1, 0, BUDGET).solve();
+        int[] stores = result.storeOfItem();
+        assertTrue((stores[0] == 0 && stores[1] == -1) || (stores[0] == -1 && stores[1] == 1));
+    }
+
+    @Test
+    void largeBasketGetsAValidPlanWithinTheStoreLimit() {
+        Random random = new Random(42);
+        double[][] prices = new double[50][30];
+        for (double[] row : prices) {
+            for (int s = 0; s < row.length; s++) {
+                row[s] = random.nextInt(10) == 0 ? NOT_SOLD : 1 + random.nextInt(5000) / 100.0;
+            }
+        }
+        // the search stops at the budget and returns its best plan so far (optimal() == false);
+        // how long it takes is measured by the JMH benchmark, not here
+        BasketSolver.Result result = new BasketSolver(prices, 4, 7.5, BUDGET).solve();
+        int[] stores = result.storeOfItem();
+        assertEquals(prices.length, stores.length);
+        Set<Integer> visited = new HashSet<>();
+        for (int item = 0; item < stores.length; item++) {
+            assertTrue(stores[item] >= 0, "item " + item + " unassigned");
+            assertTrue(prices[item][stores[item]] != NOT_SOLD, "item " + item + " assigned to a store that does not sell it");
+            visited.add(stores[item]);
+        }
+        assertTrue(visited.size() <= 4, "visits " + visited.size() + " stores");
+    }
+}
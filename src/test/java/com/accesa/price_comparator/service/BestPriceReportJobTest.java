@@ -0,0 +1,154 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.ReportJobStatus;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Store;
+import com.accesa.price_comparator.repository.BestPriceReportJdbcRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs {@link BestPriceReportJob} against the Flyway schema on a real PostgreSQL and checks the rows it
+ * writes to {@code best_price_report} and {@code category_best_value_report}.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BestPriceReportJobTest {
+
+    private static final LocalDate REPORT_DATE = LocalDate.of(2025, 5, 8);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate transactions;
+
+    @BeforeAll
+    static void migrateAndLoad() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+        transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbc.execute("insert into store (name) values ('Lidl'), ('Kaufland'), ('Profi')");
+        jdbc.execute("insert into product_catalog (id, product_name, product_category, brand, package_quantity, " +
+                "package_unit, currency) values " +
+                "('P001', 'lapte zuzu', 'Lactate', 'Zuzu', 1, 'l', 'RON'), " +
+                "('P002', 'iaurt grecesc', 'lactate', 'Olympus', 400, 'g', 'RON'), " +
+                "('P003', 'branza telemea', 'lactate', 'Hochland', 0.5, 'kg', 'RON'), " +
+                "('P004', 'paine alba', 'panificatie', 'Vel Pitar', 1, 'buc', 'RON')");
+        jdbc.execute("insert into product_latest_price (product_id, store_name, price_date, price) values " +
+                "('P001', 'Lidl', date '2025-05-01', 10), ('P001', 'Kaufland', date '2025-05-01', 9), " +
+                "('P001', 'Profi', date '2025-05-01', 11), " +
+                "('P002', 'Lidl', date '2025-05-01', 4), ('P002', 'Profi', date '2025-05-01', 3.6), " +
+                "('P003', 'Kaufland', date '2025-05-01', 12), " +
+                "('P004', 'Profi', date '2025-05-01', 3)");
+        // a previous run of the same date is replaced
+        jdbc.execute("insert into best_price_report (report_date, product_id, store_count, cheapest_store, " +
+                "cheapest_price, effective_store, effective_price, discount_percentage) " +
+                "values (date '2025-05-08', 'P999', 1, 'Lidl', 1, 'Lidl', 1, 0)");
+        jdbc.execute("insert into category_best_value_report (report_date, product_category, unit, product_id, " +
+                "store_name, effective_unit_price) values (date '2025-05-08', 'dulciuri', 'kg', 'P999', 'Lidl', 1)");
+
+        // chunks of two products, so the stream is split and written in several batches
+        BestPriceReportJob job = new BestPriceReportJob(new BestPriceReportJdbcRepository(jdbc),
+                discountIndex(discount("P001", "Lidl", 20), discount("P004", "Profi", 10)), transactions, 2, 2);
+        job.run(REPORT_DATE);
+        ReportJobStatus status = job.status();
+        assertNull(status.error());
+        assertEquals(ReportJobStatus.State.DONE, status.state());
+        assertEquals(7, status.rowsRead());
+        assertEquals(4, status.productsDone());
+    }
+
+    @Test
+    void cheapestAndEffectiveOfferPerProduct() {
+        List<Map<String, Object>> rows = jdbc.queryForList("select * from best_price_report " +
+                "where report_date = ? order by product_id", REPORT_DATE);
+        assertEquals(List.of("P001", "P002", "P003", "P004"), rows.stream().map(r -> r.get("product_id")).toList());
+
+        Map<String, Object> milk = rows.get(0);
+        assertEquals(3, milk.get("store_count"));
+        assertEquals("Kaufland", milk.get("cheapest_store"));
+        assertEquals(9.0, (double) milk.get("cheapest_price"));
+        assertEquals(9.0, (double) milk.get("unit_price"), 1e-9);
+        assertEquals("l", milk.get("unit"));
+        assertEquals("Lidl", milk.get("effective_store"));
+        assertEquals(8.0, (double) milk.get("effective_price"), 1e-9);
+        assertEquals(20, milk.get("discount_percentage"));
+
+        Map<String, Object> yogurt = rows.get(1);
+        assertEquals("Profi", yogurt.get("cheapest_store"));
+        assertEquals(9.0, (double) yogurt.get("unit_price"), 1e-9);
+        assertEquals("kg", yogurt.get("unit"));
+        assertEquals(0, yogurt.get("discount_percentage"));
+
+        Map<String, Object> bread = rows.get(3);
+        assertEquals(1, bread.get("store_count"));
+        assertEquals("pcs", bread.get("unit"));
+        assertEquals(2.7, (double) bread.get("effective_price"), 1e-9);
+    }
+
+    @Test
+    void bestValuePerCategoryAndUnit() {
+        List<Map<String, Object>> rows = jdbc.queryForList("select * from category_best_value_report " +
+                "where report_date = ? order by product_category, unit", REPORT_DATE);
+        assertEquals(List.of("lactate|kg", "lactate|l", "panificatie|pcs"), rows.stream()
+                .map(r -> r.get("product_category") + "|" + r.get("unit")).toList());
+
+        assertEquals("P002", rows.get(0).get("product_id"));
+        assertEquals("Profi", rows.get(0).get("store_name"));
+        assertEquals(9.0, (double) rows.get(0).get("effective_unit_price"), 1e-9);
+        assertEquals("P001", rows.get(1).get("product_id"));
+        assertEquals("Lidl", rows.get(1).get("store_name"));
+        assertEquals(8.0, (double) rows.get(1).get("effective_unit_price"), 1e-9);
+        assertEquals("P004", rows.get(2).get("product_id"));
+    }
+
+    @Test
+    void previousRowsOfTheDateAreReplaced() {
+        assertEquals(0, (int) jdbc.queryForObject("select count(*) from best_price_report " +
+                "where product_id = 'P999'", Integer.class));
+        assertEquals(0, (int) jdbc.queryForObject("select count(*) from category_best_value_report " +
+                "where product_category = 'dulciuri'", Integer.class));
+    }
+
+    private static DiscountIndex discountIndex(Discount... active) {
+        return new DiscountIndex(null, 10, 60) {
+            @Override
+            public List<Discount> activeOn(LocalDate date) {
+                return List.of(active);
+            }
+        };
+    }
+
+    private static Discount discount(String productId, String storeName, int percentage) {
+        Store store = new Store();
+        store.setName(storeName);
+        Discount d = new Discount();
+        d.setProductId(productId);
+        d.setStore(store);
+        d.setFromDate(REPORT_DATE.minusDays(3));
+        d.setToDate(REPORT_DATE.plusDays(3));
+        d.setPercentageOfDiscount(percentage);
+        return d;
+    }
+}
@@ -0,0 +1,145 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.event.DiscountsChangedEvent;
+import com.accesa.price_comparator.model.Discount;
+import com.accesa.price_comparator.model.Store;
+import com.accesa.price_comparator.repository.DiscountRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rankings of a {@link DiscountIndex} inside and past its day buckets, and across the midnight expiry,
+ * checked as the percentages of the returned discounts.
+ */
+class DiscountIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 8);
+
+    // the "database": what the index loads and falls back to
+    private final List<Discount> stored = new ArrayList<>();
+    private LocalDate today = DAY;
+
+    @Test
+    void storeRankingsBeyondTheTopKFilterTheWholeDay() {
+        stored.add(discount("P001", "Lidl", DAY, DAY.plusDays(3), 30));
+        stored.add(discount("P002", "Lidl", DAY, DAY.plusDays(3), 20));
+        stored.add(discount("P003", "Lidl", DAY, DAY.plusDays(3), 10));
+        stored.add(discount("P004", "Lidl", DAY, DAY.plusDays(3), 5));
+        stored.add(discount("P005", "Profi", DAY, DAY.plusDays(3), 25));
+        DiscountIndex index = index(2, 10);
+
+        assertEquals(List.of(30, 20), percentages(index.topOnForStore(DAY, "lidl", 2)));
+        assertEquals(List.of(30, 20, 10), percentages(index.topOnForStore(DAY, "Lidl", 3)));
+        assertEquals(List.of(30, 20, 10, 5), percentages(index.topOnForStore(DAY, "Lidl", 50)));
+        assertEquals(List.of(30, 25, 20), percentages(index.topOn(DAY, 3)));
+
+        // the store's top K is refilled from the day's ranking when one of its discounts drops out
+        index.onDiscountsChanged(new DiscountsChangedEvent(List.of(discount("P001", "Lidl", DAY, DAY.plusDays(3), 1))));
+        assertEquals(List.of(20, 10), percentages(index.topOnForStore(DAY, "Lidl", 2)));
+        assertEquals(List.of(20, 10, 5, 1), percentages(index.topOnForStore(DAY, "Lidl", 50)));
+    }
+
+    @Test
+    void daysPastTheLastBucketAreAnsweredFromTheIntervals() {
+        stored.add(discount("P001", "Lidl", DAY, DAY.plusDays(365), 15));
+        stored.add(discount("P002", "Profi", DAY.plusDays(2), DAY.plusDays(40), 35));
+        stored.add(discount("P003", "Profi", DAY, DAY.plusDays(3), 50));
+        stored.add(discount("P004", "Profi", DAY.plusDays(30), DAY.plusDays(30), 5));
+        DiscountIndex index = index(10, 5);
+
+        LocalDate later = DAY.plusDays(30);
+        assertEquals(List.of(35, 15, 5), percentages(index.topOn(later, 10)));
+        assertEquals(List.of(35, 15), percentages(index.topOn(later, 2)));
+        assertEquals(List.of(35, 5), percentages(index.topOnForStore(later, "profi", 10)));
+        assertEquals(List.of(15), percentages(index.topOn(DAY.plusDays(41), 10)));
+        // the last bucket and the first day after it agree
+        assertEquals(List.of(35, 15), percentages(index.topOn(DAY.plusDays(5), 10)));
+        assertEquals(List.of(35, 15), percentages(index.topOn(DAY.plusDays(6), 10)));
+        // "started after" is indexed by start date, whatever the bucket horizon
+        assertEquals(List.of(2, 4), startedAfter(index, DAY));
+    }
+
+    @Test
+    void expiryAfterMidnightDropsEndedDiscountsAndAddsTheNewLastDay() {
+        stored.add(discount("P001", "Lidl", DAY.minusDays(3), DAY, 40));
+        stored.add(discount("P002", "Lidl", DAY.plusDays(1), DAY.plusDays(10), 20));
+        stored.add(discount("P003", "Profi", DAY.plusDays(6), DAY.plusDays(8), 30));
+        DiscountIndex index = index(10, 5);
+        assertEquals(List.of(40), percentages(index.activeOn(DAY)));
+        assertEquals(List.of(30, 20), percentages(index.activeOn(DAY.plusDays(7))));
+
+        // yesterday stays indexed for one more day
+        today = DAY.plusDays(1);
+        index.expire();
+        assertEquals(List.of(40), percentages(index.activeOn(DAY)));
+        assertEquals(3, index.stats().size());
+
+        today = DAY.plusDays(2);
+        index.expire();
+        assertEquals(2, index.stats().size());
+        assertEquals(List.of(20), percentages(index.activeOn(DAY.plusDays(1))));
+        // buckets now reach two days further, and hold what was answered from the intervals before
+        assertEquals(List.of(30, 20), percentages(index.activeOn(DAY.plusDays(6))));
+        assertEquals(List.of(30, 20), percentages(index.activeOn(DAY.plusDays(7))));
+        assertEquals(List.of(20), percentages(index.topOnForStore(DAY.plusDays(7), "Lidl", 1)));
+
+        // days before the indexed horizon come from the repository
+        assertEquals(List.of(40), percentages(index.activeOn(DAY)));
+    }
+
+    private DiscountIndex index(int topPerStore, int bucketDays) {
+        DiscountIndex index = new DiscountIndex(repository(), topPerStore, bucketDays) {
+            @Override
+            LocalDate today() {
+                return today;
+            }
+        };
+        index.rebuild();
+        return index;
+    }
+
+    private List<Integer> startedAfter(DiscountIndex index, LocalDate date) {
+        return index.startedAfter(date).stream().map(d -> Integer.parseInt(d.getProductId().substring(1))).sorted()
+                .toList();
+    }
+
+    private static List<Integer> percentages(List<Discount> discounts) {
+        return discounts.stream().map(Discount::getPercentageOfDiscount).toList();
+    }
+
+    // the three queries DiscountIndex issues, over the stored list
+    private DiscountRepository repository() {
+        return (DiscountRepository) Proxy.newProxyInstance(DiscountRepository.class.getClassLoader(),
+                new Class<?>[]{DiscountRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByToDateGreaterThanEqual" -> select(d -> !d.getToDate().isBefore((LocalDate) args[0]));
+                    case "findByFromDateAfter" -> select(d -> d.getFromDate().isAfter((LocalDate) args[0]));
+                    case "findByFromDateLessThanEqualAndToDateGreaterThanEqual" ->
+                            select(d -> !d.getFromDate().isAfter((LocalDate) args[0])
+                                    && !d.getToDate().isBefore((LocalDate) args[1]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private List<Discount> select(Predicate<Discount> filter) {
+        return stored.stream().filter(filter).toList();
+    }
+
+    private static Discount discount(String productId, String storeName, LocalDate from, LocalDate to, int percentage) {
+        Store store = new Store();
+        store.setName(storeName);
+        Discount d = new Discount();
+        d.setProductId(productId);
+        d.setStore(store);
+        d.setFromDate(from);
+        d.setToDate(to);
+        d.setPercentageOfDiscount(percentage);
+        return d;
+    }
+}
@@ -0,0 +1,168 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.dto.LowestPrice;
+import com.accesa.price_comparator.dto.PriceRollup;
+import com.accesa.price_comparator.dto.RollupPeriod;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Product.ProductKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Weekly / monthly rollups and "lowest since" of a {@link PriceHistoryStore} series, checked against
+ * values recomputed from the raw points.
+ */
+class PeriodRollupsTest {
+
+    private final PriceHistoryStore store = new PriceHistoryStore(null, null);
+    // the expected series: day -> price (a later put for the same day replaces it)
+    private final TreeMap<LocalDate, Double> points = new TreeMap<>();
+
+    @Test
+    void outOfOrderDaysInsertPeriodsInTheMiddle() {
+        put("2025-03-20", 10);
+        put("2025-03-10", 12);
+        put("2025-01-15", 8);   // a month and weeks before every other period
+        put("2025-03-12", 9);   // into an existing week and month
+        put("2025-02-03", 11);  // a new period between two existing ones
+        put("2025-04-02", 7);   // appended after the last period
+
+        assertRollups(RollupPeriod.WEEK);
+        assertRollups(RollupPeriod.MONTH);
+        assertEquals(List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1),
+                LocalDate.of(2025, 4, 1)), starts(RollupPeriod.MONTH));
+    }
+
+    @Test
+    void replacingADayLowersOrRaisesMinAndMax() {
+        put("2025-03-10", 10);
+        put("2025-03-11", 12);
+        put("2025-03-12", 11);
+
+        put("2025-03-11", 9);   // the max becomes the min
+        assertRollups(RollupPeriod.WEEK);
+        PriceRollup week = rollups(RollupPeriod.WEEK).get(0);
+        assertEquals(9.0, week.min());
+        assertEquals(11.0, week.max());
+
+        put("2025-03-11", 15);  // and now the max again
+        put("2025-03-12", 10.5);  // the last day of the period changes its last price
+        assertRollups(RollupPeriod.WEEK);
+        assertRollups(RollupPeriod.MONTH);
+        week = rollups(RollupPeriod.WEEK).get(0);
+        assertEquals(10.0, week.min());
+        assertEquals(15.0, week.max());
+        assertEquals(10.5, week.last());
+        assertEquals(3, week.count());
+    }
+
+    @Test
+    void isoWeeksStartOnMondayAndMonthsOnTheFirst() {
+        put("2025-03-09", 5);   // Sunday
+        put("2025-03-10", 6);   // Monday: next ISO week, same month
+        put("2025-03-31", 7);   // Monday
+        put("2025-04-01", 8);   // Tuesday: same ISO week, next month
+        put("2024-12-30", 4);   // Monday of ISO week 1 of 2025, still December
+
+        assertRollups(RollupPeriod.WEEK);
+        assertRollups(RollupPeriod.MONTH);
+        assertEquals(List.of(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 10),
+                LocalDate.of(2025, 3, 31)), starts(RollupPeriod.WEEK));
+        assertEquals(List.of(LocalDate.of(2024, 12, 1), LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1)),
+                starts(RollupPeriod.MONTH));
+    }
+
+    @Test
+    void lowestSinceCombinesThePartialMonthWithWholeMonths() {
+        put("2025-01-10", 3);   // before the window
+        put("2025-01-20", 9);   // partial first month
+        put("2025-01-25", 6);
+        put("2025-02-14", 7);
+        put("2025-03-05", 5);   // the lowest, found through the monthly minimum
+        put("2025-03-06", 5);   // same price later: the earliest one is reported
+        put("2025-04-01", 8);
+
+        LowestPrice lowest = store.lowestSince("P001", "Lidl", LocalDate.of(2025, 1, 15));
+        assertEquals(5.0, lowest.price());
+        assertEquals(LocalDate.of(2025, 3, 5), lowest.date());
+        assertEquals(8.0, lowest.currentPrice());
+
+        put("2025-01-25", 4);   // a replaced day in the partial month is now the lowest
+        lowest = store.lowestSince("P001", "Lidl", LocalDate.of(2025, 1, 15));
+        assertEquals(4.0, lowest.price());
+        assertEquals(LocalDate.of(2025, 1, 25), lowest.date());
+
+        lowest = store.lowestSince("P001", "Lidl", LocalDate.of(2025, 2, 1));  // starts on a whole month
+        assertEquals(5.0, lowest.price());
+    }
+
+    @Test
+    void randomUpdatesMatchTheRecomputedRollups() {
+        Random random = new Random(7);
+        LocalDate first = LocalDate.of(2024, 11, 1);
+        for (int i = 0; i < 400; i++) {
+            LocalDate day = first.plusDays(random.nextInt(200));
+            put(day.toString(), 1 + random.nextInt(2000) / 100.0);
+        }
+        assertRollups(RollupPeriod.WEEK);
+        assertRollups(RollupPeriod.MONTH);
+        LocalDate since = first.plusDays(45);
+        double expected = points.tailMap(since, true).values().stream().mapToDouble(Double::doubleValue).min().orElseThrow();
+        assertEquals(expected, store.lowestSince("P001", "Lidl", since).price());
+    }
+
+    private void put(String date, double price) {
+        LocalDate day = LocalDate.parse(date);
+        points.put(day, price);
+        store.onPricesChanged(new ProductPricesChangedEvent(List.of(product(day, price))));
+    }
+
+    private List<PriceRollup> rollups(RollupPeriod period) {
+        return store.rollups("P001", "Lidl", period, null, null).stores().get("Lidl");
+    }
+
+    private List<LocalDate> starts(RollupPeriod period) {
+        return rollups(period).stream().map(PriceRollup::periodStart).toList();
+    }
+
+    // every period recomputed from the expected points
+    private void assertRollups(RollupPeriod period) {
+        Map<LocalDate, List<Double>> byPeriod = new TreeMap<>();
+        points.forEach((day, price) -> byPeriod.computeIfAbsent(
+                LocalDate.ofEpochDay(period.start((int) day.toEpochDay())), k -> new ArrayList<>()).add(price));
+        List<PriceRollup> actual = rollups(period);
+        assertEquals(new ArrayList<>(byPeriod.keySet()), actual.stream().map(PriceRollup::periodStart).toList());
+        int i = 0;
+        for (List<Double> prices : byPeriod.values()) {
+            PriceRollup r = actual.get(i++);
+            assertEquals(prices.size(), r.count());
+            assertEquals(prices.stream().mapToDouble(Double::doubleValue).min().orElseThrow(), r.min());
+            assertEquals(prices.stream().mapToDouble(Double::doubleValue).max().orElseThrow(), r.max());
+            assertEquals(prices.get(prices.size() - 1), r.last());
+            double average = prices.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+            assertTrue(Math.abs(average - r.average()) < 1e-9, "average of " + r.periodStart());
+        }
+    }
+
+    private static Product product(LocalDate date, double price) {
+        ProductKey key = new ProductKey();
+        key.setId("P001");
+        key.setStoreName("Lidl");
+        key.setPriceDate(date);
+        Product p = new Product();
+        p.setKey(key);
+        p.setProductName("lapte zuzu");
+        p.setPrice(price);
+        return p;
+    }
+}
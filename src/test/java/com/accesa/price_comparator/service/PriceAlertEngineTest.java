@@ -0,0 +1,145 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.event.LatestPricesChangedEvent;
+import com.accesa.price_comparator.event.ProductPricesChangedEvent;
+import com.accesa.price_comparator.model.PriceAlert;
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Product.ProductKey;
+import com.accesa.price_comparator.repository.PriceAlertJdbcRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Alerts of a {@link PriceAlertEngine} fed by a {@link LatestPriceIndex}: which alerts a price change triggers,
+ * and an alert registered while a price change is being applied.
+ */
+class PriceAlertEngineTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 1);
+
+    private final AlertWriteBehind writeBehind = new AlertWriteBehind(ids(), 100, 1000, 60_000, 1000);
+    private final LatestPriceIndex index = new LatestPriceIndex(null, null, this::publish);
+    private PriceAlertEngine engine = new PriceAlertEngine(null, null, writeBehind, index);
+
+    @Test
+    void aPriceTriggersEveryAlertWithATargetAtOrAboveIt() {
+        load(index, product("P001", "Lidl", DAY, 10), product("P001", "Profi", DAY, 11));
+        PriceAlert below = register("P001", null, 8);
+        PriceAlert atPrice = register("P001", null, 9);
+        PriceAlert above = register("P001", null, 9.5);
+        PriceAlert otherProduct = register("P002", null, 20);
+        PriceAlert alreadySatisfied = register("P001", null, 10);
+        assertTrue(alreadySatisfied.isTriggered());
+
+        change(product("P001", "Lidl", DAY.plusDays(1), 9));
+        assertFalse(below.isTriggered());
+        assertTrue(atPrice.isTriggered());
+        assertTrue(above.isTriggered());
+        assertFalse(otherProduct.isTriggered());
+        assertTrue(writeBehind.find(atPrice.getId()).orElseThrow().isTriggered());
+
+        // the triggered alerts are no longer tracked, the one below the price still is
+        change(product("P001", "Lidl", DAY.plusDays(2), 7));
+        assertTrue(below.isTriggered());
+        assertEquals(1, engine.stats().size());
+    }
+
+    @Test
+    void aStoreAlertOnlyMatchesPricesOfItsStore() {
+        load(index, product("P001", "Lidl", DAY, 10), product("P001", "Profi", DAY, 11));
+        PriceAlert lidl = register("P001", "lidl", 9.5);
+        PriceAlert profi = register("P001", "Profi", 9.5);
+
+        change(product("P001", "Profi", DAY.plusDays(1), 9));
+        assertFalse(lidl.isTriggered());
+        assertTrue(profi.isTriggered());
+
+        change(product("P001", "Lidl", DAY.plusDays(1), 9.5));
+        assertTrue(lidl.isTriggered());
+    }
+
+    @Test
+    void anAlertRegisteredWhileAPriceChangeIsAppliedIsStillMatched() throws InterruptedException {
+        Thread[] racer = new Thread[1];
+        // the price drops right after register() read the current one, before the alert is tracked
+        LatestPriceIndex racing = new LatestPriceIndex(null, null, this::publish) {
+            @Override
+            public Double cheapestPrice(String productId) {
+                Double seen = super.cheapestPrice(productId);
+                if (racer[0] == null) {
+                    racer[0] = new Thread(() -> onPricesChanged(
+                            new ProductPricesChangedEvent(List.of(product("P001", "Lidl", DAY.plusDays(1), 8)))));
+                    racer[0].start();
+                    // until the change has been applied, or is waiting for the engine's lock
+                    while (racer[0].isAlive() && racer[0].getState() != Thread.State.BLOCKED) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return seen;
+            }
+        };
+        load(racing, product("P001", "Lidl", DAY, 10));
+        engine = new PriceAlertEngine(null, null, writeBehind, racing);
+
+        PriceAlert alert = register("P001", null, 9);
+        racer[0].join(5_000);
+        assertEquals(8.0, racing.cheapestPrice("P001"));
+        assertTrue(alert.isTriggered());
+    }
+
+    private PriceAlert register(String productId, String storeName, double targetPrice) {
+        PriceAlert alert = PriceAlert.builder().id(writeBehind.newId()).productId(productId).storeName(storeName)
+                .targetPrice(targetPrice).build();
+        return engine.register(alert);
+    }
+
+    private void change(Product p) {
+        index.onPricesChanged(new ProductPricesChangedEvent(List.of(p)));
+    }
+
+    private void publish(Object event) {
+        if (event instanceof LatestPricesChangedEvent changed) engine.onLatestPricesChanged(changed);
+    }
+
+    private static void load(LatestPriceIndex target, Product... latest) {
+        target.restore(new PriceSnapshot(Instant.now(), 0, List.of(), List.of(latest), List.of()));
+    }
+
+    private static Product product(String id, String storeName, LocalDate date, double price) {
+        ProductKey key = new ProductKey();
+        key.setId(id);
+        key.setStoreName(storeName);
+        key.setPriceDate(date);
+        Product p = new Product();
+        p.setKey(key);
+        p.setPrice(price);
+        return p;
+    }
+
+    // the write-behind is not started: alerts stay queued, only ids are reserved
+    private static PriceAlertJdbcRepository ids() {
+        return new PriceAlertJdbcRepository(null) {
+            private long nextId = 1;
+
+            @Override
+            public List<Long> reserveIds(int count) {
+                List<Long> ids = new ArrayList<>();
+                for (int i = 0; i < count; i++) ids.add(nextId++);
+                return ids;
+            }
+
+            @Override
+            public void upsert(Collection<PriceAlert> alerts) {
+            }
+        };
+    }
+}
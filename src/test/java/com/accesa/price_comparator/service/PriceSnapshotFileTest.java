@@ -0,0 +1,106 @@
+package com.accesa.price_comparator.service;
+
+import com.accesa.price_comparator.model.Product;
+import com.accesa.price_comparator.model.Product.ProductKey;
+import com.accesa.price_comparator.model.Store;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriceSnapshotFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsTheDataset() {
+        PriceSnapshotFile file = new PriceSnapshotFile(dir.resolve("snapshot.bin"));
+        file.write(snapshot());
+
+        PriceSnapshot read = file.read().orElseThrow();
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), read.createdAt());
+        assertEquals(42, read.dataVersion());
+        assertEquals(List.of("Lidl", "Profi"), read.stores());
+        assertEquals(2, read.latest().size());
+        Product lidl = read.latest().get(0);
+        assertEquals("P001", lidl.getId());
+        assertEquals("Lidl", lidl.getStore().getName());
+        assertEquals(LocalDate.of(2025, 5, 8), lidl.getPriceDate());
+        assertEquals(9.9, lidl.getPrice());
+        assertEquals("lapte zuzu", lidl.getProductName());
+        assertNull(lidl.getBrand());
+        assertEquals(1.5, lidl.getPackageQuantity());
+        assertSame(lidl.getCatalog(), read.latest().get(1).getCatalog());
+        PriceSnapshot.Series series = read.history().get(0);
+        assertEquals("P001", series.productId());
+        assertArrayEquals(new int[]{20_000, 20_001, 20_216}, series.days());
+        assertArrayEquals(new double[]{10.5, 10.0, 9.9}, series.prices());
+    }
+
+    @Test
+    void corruptedOrOutdatedFilesAreIgnored() throws IOException {
+        Path path = dir.resolve("snapshot.bin");
+        PriceSnapshotFile file = new PriceSnapshotFile(path);
+        file.write(snapshot());
+        byte[] valid = Files.readAllBytes(path);
+
+        byte[] flipped = valid.clone();
+        flipped[flipped.length - 3] ^= 1;
+        Files.write(path, flipped);
+        assertEquals(Optional.empty(), file.read());
+
+        byte[] otherVersion = valid.clone();
+        ByteBuffer.wrap(otherVersion).putInt(4, PriceSnapshotFile.VERSION + 1);
+        Files.write(path, otherVersion);
+        assertEquals(Optional.empty(), file.read());
+
+        Files.write(path, Arrays.copyOf(valid, valid.length - 8));
+        assertEquals(Optional.empty(), file.read());
+
+        Files.delete(path);
+        assertTrue(file.read().isEmpty());
+    }
+
+    private static PriceSnapshot snapshot() {
+        Product lidl = product("P001", "Lidl", LocalDate.of(2025, 5, 8), 9.9);
+        Product profi = product("P001", "Profi", LocalDate.of(2025, 5, 1), 10.4);
+        PriceSnapshot.Series history = new PriceSnapshot.Series("P001", "Lidl",
+                new int[]{20_000, 20_001, 20_216}, new double[]{10.5, 10.0, 9.9});
+        return new PriceSnapshot(Instant.ofEpochMilli(1_700_000_000_000L), 42, List.of("Lidl", "Profi"),
+                List.of(lidl, profi), List.of(history));
+    }
+
+    private static Product product(String id, String storeName, LocalDate date, double price) {
+        ProductKey key = new ProductKey();
+        key.setId(id);
+        key.setStoreName(storeName);
+        key.setPriceDate(date);
+        Store store = new Store();
+        store.setName(storeName);
+        Product p = new Product();
+        p.setKey(key);
+        p.setStore(store);
+        p.setProductName("lapte zuzu");
+        p.setProductCategory("lactate");
+        p.setPackageQuantity(1.5);
+        p.setPackageUnit("l");
+        p.setCurrency("RON");
+        p.setPrice(price);
+        return p;
+    }
+}